@@ -17,10 +17,17 @@
 package io.fd.maintainer.plugin;
 
 import com.google.gerrit.common.EventListener;
+import com.google.gerrit.extensions.events.GitReferenceUpdatedListener;
+import com.google.gerrit.extensions.events.LifecycleListener;
 import com.google.gerrit.extensions.registration.DynamicSet;
+import com.google.gerrit.server.git.validators.CommitValidationListener;
 import com.google.inject.AbstractModule;
-import io.fd.maintainer.plugin.events.OnCommittersToBeAddedListener;
-import io.fd.maintainer.plugin.events.OnPatchsetVerifiedListener;
+import io.fd.maintainer.plugin.events.EventQueue;
+import io.fd.maintainer.plugin.events.MaintainersFileUpdatedListener;
+import io.fd.maintainer.plugin.events.MaintainersFileValidator;
+import io.fd.maintainer.plugin.service.OpenChangesReevaluator;
+import io.fd.maintainer.plugin.service.PatchListMatcher;
+import io.fd.maintainer.plugin.service.push.SubmitPusher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +38,13 @@ public class MaintainerPluginModule extends AbstractModule {
     @Override
     protected void configure() {
         LOG.info("Configuring ComponentInfo plugin module");
-        DynamicSet.bind(binder(), EventListener.class).to(OnCommittersToBeAddedListener.class);
-        DynamicSet.bind(binder(), EventListener.class).to(OnPatchsetVerifiedListener.class);
+        // listeners consume events from queue, so they are not bound directly
+        DynamicSet.bind(binder(), EventListener.class).to(EventQueue.class);
+        DynamicSet.bind(binder(), LifecycleListener.class).to(EventQueue.class);
+        DynamicSet.bind(binder(), LifecycleListener.class).to(PatchListMatcher.class);
+        DynamicSet.bind(binder(), CommitValidationListener.class).to(MaintainersFileValidator.class);
+        DynamicSet.bind(binder(), GitReferenceUpdatedListener.class).to(MaintainersFileUpdatedListener.class);
+        DynamicSet.bind(binder(), LifecycleListener.class).to(OpenChangesReevaluator.class);
+        DynamicSet.bind(binder(), LifecycleListener.class).to(SubmitPusher.class);
     }
 }
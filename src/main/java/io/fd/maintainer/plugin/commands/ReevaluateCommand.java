@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.commands;
+
+import com.google.gerrit.common.data.GlobalCapability;
+import com.google.gerrit.extensions.annotations.RequiresCapability;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.client.RefNames;
+import com.google.gerrit.sshd.CommandMetaData;
+import com.google.gerrit.sshd.SshCommand;
+import com.google.inject.Inject;
+import io.fd.maintainer.plugin.service.OpenChangesReevaluator;
+import java.util.ArrayList;
+import java.util.List;
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+@RequiresCapability(GlobalCapability.ADMINISTRATE_SERVER)
+@CommandMetaData(name = "reevaluate", description = "Re-evaluate open changes against current maintainers file")
+public class ReevaluateCommand extends SshCommand {
+
+    @Argument(index = 0, required = true, metaVar = "PROJECT", usage = "project of changes to re-evaluate")
+    private String project;
+
+    @Option(name = "--branch", aliases = {"-b"}, required = true, metaVar = "BRANCH",
+            usage = "branch of changes to re-evaluate, can be specified multiple times")
+    private List<String> branches = new ArrayList<>();
+
+    @Inject
+    private OpenChangesReevaluator reevaluator;
+
+    @Override
+    protected void run() {
+        for (String branch : branches) {
+            final String fullBranch = branch.startsWith(RefNames.REFS_HEADS)
+                    ? branch
+                    : RefNames.REFS_HEADS + branch;
+            reevaluator.reevaluate(new Branch.NameKey(new Project.NameKey(project), fullBranch));
+            stdout.println("Re-evaluation of open changes of " + fullBranch + " scheduled");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.events;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of events waiting for processing. Event is appended before it is queued and marked as done once
+ * processed, so that events not processed before restart can be replayed. Log is trimmed whenever nothing is pending
+ */
+final class EventLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventLog.class);
+
+    private static final char ADDED = '+';
+    private static final char DONE = '-';
+    private static final String SEPARATOR = "\t";
+    private static final String LINE_SEPARATOR = "\n";
+    // log is rewritten with pending entries only once this many entries were marked as done
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final Path file;
+    private final Map<Long, Entry> pending = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long nextId;
+    private int doneSinceCompaction;
+
+    EventLog(@Nonnull final Path file) {
+        this.file = file;
+    }
+
+    private static Entry parseAdded(final String line) {
+        final String[] parts = line.substring(1).split(SEPARATOR, 3);
+        return parts.length == 3
+                ? new Entry(Long.parseLong(parts[0]), parts[1], parts[2])
+                : null;
+    }
+
+    private static String formatAdded(final Entry entry) {
+        return ADDED + Long.toString(entry.id) + SEPARATOR + entry.key + SEPARATOR + entry.payload + LINE_SEPARATOR;
+    }
+
+    /**
+     * Reads entries that were not marked as done. Entries with the same key are replayed only once, most recent one
+     * is kept at position of its last occurrence
+     */
+    synchronized List<Entry> replay() throws IOException {
+        final Map<Long, Entry> added = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, UTF_8)) {
+                try {
+                    if (line.charAt(0) == ADDED) {
+                        final Entry entry = parseAdded(line);
+                        if (entry != null) {
+                            added.put(entry.id, entry);
+                        }
+                    } else if (line.charAt(0) == DONE) {
+                        added.remove(Long.parseLong(line.substring(1)));
+                    }
+                } catch (RuntimeException e) {
+                    // last line may be incomplete if write was interrupted by crash
+                    LOG.warn("Skipping malformed line of event log {}", file);
+                }
+            }
+        }
+
+        final Map<String, Entry> byKey = new LinkedHashMap<>();
+        for (Entry entry : added.values()) {
+            byKey.remove(entry.key);
+            byKey.put(entry.key, entry);
+            nextId = Math.max(nextId, entry.id + 1);
+        }
+        pending.clear();
+        byKey.values().forEach(entry -> pending.put(entry.id, entry));
+        rewrite();
+        return new ArrayList<>(pending.values());
+    }
+
+    synchronized Entry append(@Nonnull final String key, @Nonnull final String payload) throws IOException {
+        final Entry entry = new Entry(nextId++, key, payload);
+        write(formatAdded(entry));
+        pending.put(entry.id, entry);
+        return entry;
+    }
+
+    synchronized void markDone(@Nonnull final Entry entry) throws IOException {
+        if (pending.remove(entry.id) == null || channel == null) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.force(false);
+            doneSinceCompaction = 0;
+            return;
+        }
+        write(DONE + Long.toString(entry.id) + LINE_SEPARATOR);
+        if (++doneSinceCompaction >= COMPACTION_THRESHOLD) {
+            rewrite();
+        }
+    }
+
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(final String line) throws IOException {
+        if (channel == null) {
+            throw new IOException("Event log " + file + " is not open");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    // new content is written aside and moved over log, so that crash does not leave log half written
+    private void rewrite() throws IOException {
+        close();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileChannel rewritten = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending.values()) {
+                final ByteBuffer buffer = ByteBuffer.wrap(formatAdded(entry).getBytes(UTF_8));
+                while (buffer.hasRemaining()) {
+                    rewritten.write(buffer);
+                }
+            }
+            rewritten.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        doneSinceCompaction = 0;
+    }
+
+    static final class Entry {
+        private final long id;
+        private final String key;
+        private final String payload;
+
+        private Entry(final long id, final String key, final String payload) {
+            this.id = id;
+            this.key = key;
+            this.payload = payload;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getPayload() {
+            return payload;
+        }
+    }
+}
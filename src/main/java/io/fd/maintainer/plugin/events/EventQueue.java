@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.events;
+
+import static io.fd.maintainer.plugin.service.SettingsProvider.MAINTAINER_PLUGIN;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.common.EventListener;
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.data.AccountAttribute;
+import com.google.gerrit.server.data.ApprovalAttribute;
+import com.google.gerrit.server.events.CommentAddedEvent;
+import com.google.gerrit.server.events.Event;
+import com.google.gerrit.server.events.EventDeserializer;
+import com.google.gerrit.server.events.PatchSetEvent;
+import com.google.gerrit.server.events.SupplierDeserializer;
+import com.google.gerrit.server.events.SupplierSerializer;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gwtorm.server.OrmException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes events asynchronously on queue dedicated to plugin. Events are written to log in data directory of plugin
+ * before they are queued, so that events not processed before restart are processed once plugin is started again
+ */
+@Singleton
+public class EventQueue implements EventListener, LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventQueue.class);
+
+    private static final String EVENT_THREADS = "eventthreads";
+    private static final int DEFAULT_EVENT_THREADS = 4;
+    private static final String QUEUE_NAME = "maintainer-events";
+    private static final String LOG_FILE = "events.log";
+
+    // the same format as stream-events uses, so that any event type known to gerrit can be replayed
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Supplier.class, new SupplierSerializer())
+            .registerTypeAdapter(Supplier.class, new SupplierDeserializer())
+            .registerTypeAdapter(Event.class, new EventDeserializer())
+            .create();
+
+    private final WorkQueue workQueue;
+    private final OneOffRequestContext requestContext;
+    private final int threads;
+    private final EventLog eventLog;
+    private final List<SelfDescribingEventListener> consumers;
+
+    private volatile WorkQueue.Executor executor;
+    private volatile boolean stopped;
+
+    @Inject
+    EventQueue(final WorkQueue workQueue,
+               final OneOffRequestContext requestContext,
+               final PluginConfigFactory cfg,
+               @PluginData final Path dataDirectory,
+               final OnCommittersToBeAddedListener committersToBeAddedListener,
+               final OnPatchsetVerifiedListener patchsetVerifiedListener) {
+        this.workQueue = workQueue;
+        this.requestContext = requestContext;
+        this.threads = Math.max(1, cfg.getFromGerritConfig(MAINTAINER_PLUGIN)
+                .getInt(EVENT_THREADS, DEFAULT_EVENT_THREADS));
+        this.eventLog = new EventLog(dataDirectory.resolve(LOG_FILE));
+        this.consumers = ImmutableList.of(committersToBeAddedListener, patchsetVerifiedListener);
+    }
+
+    // events of the same patchset replace each other, as processing always reads current state of the change.
+    // Comments replace only comments of the same author with the same votes, as processing depends on votes of event
+    @VisibleForTesting
+    static String eventKey(final Event event) {
+        if (event instanceof PatchSetEvent) {
+            final PatchSetEvent patchSetEvent = (PatchSetEvent) event;
+            final String key = event.getType() + ":" + patchSetEvent.change.get().project + ":"
+                    + patchSetEvent.change.get().number + ":" + patchSetEvent.patchSet.get().number;
+            return event instanceof CommentAddedEvent
+                    ? key + ":" + commentKey((CommentAddedEvent) event)
+                    : key;
+        }
+        return event.getType() + ":" + event.eventCreatedOn;
+    }
+
+    private static String commentKey(final CommentAddedEvent event) {
+        final AccountAttribute author = event.author == null
+                ? null
+                : event.author.get();
+        final ApprovalAttribute[] approvals = event.approvals == null
+                ? null
+                : event.approvals.get();
+        return (author == null
+                ? ""
+                : author.username + "<" + author.email + ">")
+                + ":" + (approvals == null
+                ? ""
+                : Arrays.stream(approvals)
+                .map(approval -> approval.type + "=" + approval.value)
+                .sorted()
+                .collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public void onEvent(final Event event) {
+        if (consumers.stream().noneMatch(consumer -> consumer.canConsume(event))) {
+            return;
+        }
+
+        EventLog.Entry entry = null;
+        try {
+            entry = eventLog.append(eventKey(event), GSON.toJson(event));
+        } catch (IOException e) {
+            LOG.error("Unable to log event {}, it will not be replayed after restart", eventKey(event), e);
+        }
+        submit(event, entry);
+    }
+
+    private void submit(final Event event, @Nullable final EventLog.Entry entry) {
+        final WorkQueue.Executor current = executor;
+        try {
+            if (current != null) {
+                current.submit(() -> process(event, entry));
+                return;
+            }
+        } catch (RejectedExecutionException e) {
+            // plugin is being stopped
+        }
+        if (entry == null) {
+            LOG.error("Event {} received while plugin is not running and it is not logged, it is lost",
+                    eventKey(event));
+        } else {
+            LOG.warn("Event {} received while plugin is not running, it is left for replay", eventKey(event));
+        }
+    }
+
+    private void process(final Event event, @Nullable final EventLog.Entry entry) {
+        // queue threads have no request context, so listeners run as if triggered by server
+        try (final ManualRequestContext ignored = requestContext.open()) {
+            consumers.forEach(consumer -> consumer.onEvent(event));
+        } catch (RuntimeException | OrmException e) {
+            // failed event is not retried, as it would most probably fail again after each restart
+            LOG.error("Processing of event {} failed", eventKey(event), e);
+        }
+
+        // event interrupted by stop is left in log, so that it is processed again after restart
+        if (entry != null && !stopped) {
+            try {
+                eventLog.markDone(entry);
+            } catch (IOException e) {
+                LOG.warn("Unable to mark event {} as processed, it may be processed again after restart",
+                        entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        final WorkQueue.Executor queue = workQueue.createQueue(threads, QUEUE_NAME);
+        final List<EventLog.Entry> pending;
+        // queue is published only once log is open again, and atomically with it, so every event it gets is logged
+        synchronized (eventLog) {
+            try {
+                pending = eventLog.replay();
+            } catch (IOException e) {
+                queue.shutdownNow();
+                queue.unregisterWorkQueue();
+                throw new IllegalStateException("Unable to read log of pending events", e);
+            }
+            executor = queue;
+        }
+
+        if (!pending.isEmpty()) {
+            LOG.info("Replaying {} events not processed before restart", pending.size());
+        }
+        for (EventLog.Entry entry : pending) {
+            try {
+                submit(GSON.fromJson(entry.getPayload(), Event.class), entry);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to replay event {}, skipping it", entry.getKey(), e);
+                try {
+                    eventLog.markDone(entry);
+                } catch (IOException ioException) {
+                    LOG.warn("Unable to mark event {} as processed", entry.getKey(), ioException);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
+        }
+        try {
+            eventLog.close();
+        } catch (IOException e) {
+            LOG.warn("Unable to close log of pending events", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.events;
+
+import static io.fd.maintainer.plugin.events.MaintainersFileValidator.findFile;
+
+import com.google.gerrit.extensions.events.GitReferenceUpdatedListener;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.client.RefNames;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.InvalidMaintainersFileException;
+import io.fd.maintainer.plugin.service.MaintainersProvider;
+import io.fd.maintainer.plugin.service.OpenChangesReevaluator;
+import io.fd.maintainer.plugin.service.SettingsProvider;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Once update of branch changes maintainers file that some branches of project read from it, new file is published
+ * for them and their open changes are re-evaluated. Branches using maintainers project are re-evaluated by admin
+ * command
+ */
+@Singleton
+public class MaintainersFileUpdatedListener implements GitReferenceUpdatedListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersFileUpdatedListener.class);
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private GitRepositoryManager manager;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    @Inject
+    private OpenChangesReevaluator reevaluator;
+
+    @Override
+    public void onGitReferenceUpdated(final Event event) {
+        if (!event.getRefName().startsWith(RefNames.REFS_HEADS) || event.isCreate() || event.isDelete()) {
+            return;
+        }
+
+        final Project.NameKey projectKey = new Project.NameKey(event.getProjectName());
+        try (final Repository repository = manager.openRepository(projectKey);
+             final RevWalk revWalk = new RevWalk(repository)) {
+            final RevCommit oldTip = revWalk.parseCommit(ObjectId.fromString(event.getOldObjectId()));
+            final RevCommit newTip = revWalk.parseCommit(ObjectId.fromString(event.getNewObjectId()));
+
+            // most updates do not touch maintainers file, so branches are resolved only once some file changed
+            final Map<String, ObjectId> changedFiles = new HashMap<>();
+            for (String filePath : settingsProvider.getMaintainersFilePaths(projectKey)) {
+                final ObjectId newFileId = findFile(repository, filePath, newTip);
+                if (newFileId != null && !Objects.equals(findFile(repository, filePath, oldTip), newFileId)) {
+                    changedFiles.put(filePath, newFileId);
+                }
+            }
+            if (changedFiles.isEmpty()) {
+                return;
+            }
+
+            for (Map.Entry<String, List<Branch.NameKey>> file
+                    : readersOfRef(repository, projectKey, event.getRefName()).entrySet()) {
+                final String filePath = file.getKey();
+                final ObjectId newFileId = changedFiles.get(filePath);
+                if (newFileId == null) {
+                    continue;
+                }
+
+                try {
+                    maintainersProvider.useFileOfRefTip(projectKey, event.getRefName(), filePath, repository,
+                            newTip, newFileId);
+                } catch (InvalidMaintainersFileException e) {
+                    LOG.warn("Maintainers file {} of {} in {} is invalid, open changes are not re-evaluated",
+                            filePath, event.getRefName(), projectKey);
+                    continue;
+                }
+                for (Branch.NameKey branch : file.getValue()) {
+                    LOG.info("Maintainers file {} of {} updated, re-evaluating open changes of {}", filePath,
+                            event.getRefName(), branch.get());
+                    reevaluator.reevaluate(branch);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOG.warn("Unable to process update of maintainers file of {} in {}", event.getRefName(), projectKey, e);
+        }
+    }
+
+    /**
+     * Returns branches of project that read maintainers file from given ref, grouped by path of the file
+     */
+    private Map<String, List<Branch.NameKey>> readersOfRef(final Repository repository,
+                                                           final Project.NameKey projectKey,
+                                                           final String refName) throws IOException {
+        final List<String> branchNames = repository.getRefDatabase().getRefs(RefNames.REFS_HEADS).keySet().stream()
+                .map(RefNames.REFS_HEADS::concat)
+                .collect(Collectors.toList());
+
+        final Map<String, List<Branch.NameKey>> readers = new HashMap<>();
+        settingsProvider.getReadersOfFileRef(branchNames, projectKey, refName).forEach((branchName, settings) -> {
+            final List<Branch.NameKey> branches =
+                    readers.computeIfAbsent(settings.getLocalFilePath(), path -> new ArrayList<>());
+            // file is published for all readers, but only changes of those adding reviewers or approving changes
+            // are re-evaluated
+            if (settings.isAutoAddReviewers() || settings.isAllowMaintainersSubmit()) {
+                branches.add(new Branch.NameKey(projectKey, branchName));
+            }
+        });
+        return readers;
+    }
+}
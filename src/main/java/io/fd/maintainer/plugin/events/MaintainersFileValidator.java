@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.events;
+
+import static java.lang.String.format;
+
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.events.CommitReceivedEvent;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.validators.CommitValidationException;
+import com.google.gerrit.server.git.validators.CommitValidationListener;
+import com.google.gerrit.server.git.validators.CommitValidationMessage;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.InvalidMaintainersFileException;
+import io.fd.maintainer.plugin.service.MaintainersProvider;
+import io.fd.maintainer.plugin.service.SettingsProvider;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rejects pushed commits that make maintainers file invalid. Index of valid file is built right away, so that it is
+ * ready once the commit gets to branch, see {@link MaintainersFileUpdatedListener}
+ */
+@Singleton
+public class MaintainersFileValidator implements CommitValidationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintainersFileValidator.class);
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    @Inject
+    private GitRepositoryManager manager;
+
+    @Override
+    public List<CommitValidationMessage> onCommitReceived(final CommitReceivedEvent receiveEvent)
+            throws CommitValidationException {
+        final Project.NameKey projectKey = receiveEvent.getProjectNameKey();
+        final PluginBranchSpecificSettings settings;
+        try {
+            settings = settingsProvider.getBranchSpecificSettings(receiveEvent.getRefName(), projectKey);
+        } catch (IllegalStateException e) {
+            // misconfiguration of plugin should not block pushes
+            LOG.warn("Unable to read settings for {}, skipping validation of maintainers file",
+                    receiveEvent.getRefName(), e);
+            return Collections.emptyList();
+        }
+
+        // file of maintainers project is not used for this branch, so there is no need to validate it
+        if (!settings.isValidateMaintainersFile() || settings.getMaintainersProject().isPresent()) {
+            return Collections.emptyList();
+        }
+
+        final String filePath = settings.getLocalFilePath();
+        try (final Repository repository = manager.openRepository(projectKey);
+             final RevWalk revWalk = new RevWalk(repository)) {
+            final RevCommit commit = revWalk.parseCommit(receiveEvent.commit);
+            final ObjectId fileId = findFile(repository, filePath, commit);
+            // only commits that change maintainers file are validated
+            final ObjectId parentFileId = commit.getParentCount() > 0
+                    ? findFile(repository, filePath, revWalk.parseCommit(commit.getParent(0)))
+                    : null;
+            if (fileId == null || Objects.equals(fileId, parentFileId)) {
+                return Collections.emptyList();
+            }
+
+            LOG.info("Validating maintainers file {} of commit {}", fileId.getName(), commit.getName());
+            maintainersProvider.precompile(projectKey, filePath, repository, fileId);
+            return Collections.emptyList();
+        } catch (InvalidMaintainersFileException e) {
+            throw new CommitValidationException(format("invalid maintainers file %s", filePath),
+                    Collections.singletonList(new CommitValidationMessage(
+                            format("%s: %s", filePath, e.getReason()), true)));
+        } catch (IOException | IllegalStateException e) {
+            // failure to read file or to resolve its accounts should not block pushes either, only invalid file does
+            LOG.warn("Unable to validate maintainers file {} of {}, skipping validation", filePath,
+                    receiveEvent.getRefName(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    static ObjectId findFile(final Repository repository, final String filePath, final RevCommit commit)
+            throws IOException {
+        try (final TreeWalk treeWalk = TreeWalk.forPath(repository, filePath, commit.getTree())) {
+            return treeWalk == null
+                    ? null
+                    : treeWalk.getObjectId(0);
+        }
+    }
+}
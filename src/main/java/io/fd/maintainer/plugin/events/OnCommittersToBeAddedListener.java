@@ -16,13 +16,13 @@
 
 package io.fd.maintainer.plugin.events;
 
+import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
 import com.google.gerrit.reviewdb.client.Project;
 import com.google.gerrit.reviewdb.server.ReviewDb;
 import com.google.gerrit.server.change.ChangesCollection;
 import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.PostReviewers;
 import com.google.gerrit.server.change.Revisions;
 import com.google.gerrit.server.data.ChangeAttribute;
 import com.google.gerrit.server.events.Event;
@@ -30,14 +30,21 @@ import com.google.gerrit.server.events.PatchSetCreatedEvent;
 import com.google.gerrit.server.patch.PatchList;
 import com.google.gerrit.server.patch.PatchListCache;
 import com.google.gerrit.server.patch.PatchListEntry;
+import com.google.gerrit.server.query.change.ChangeData;
 import com.google.gwtorm.server.OrmException;
 import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.service.ChangeLocks;
+import io.fd.maintainer.plugin.service.Deadline;
+import io.fd.maintainer.plugin.service.DeadlineExceededException;
+import io.fd.maintainer.plugin.service.InvalidMaintainersFileException;
 import io.fd.maintainer.plugin.service.MaintainersProvider;
+import io.fd.maintainer.plugin.service.ProcessingMetrics;
 import io.fd.maintainer.plugin.service.SettingsProvider;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import io.fd.maintainer.plugin.service.push.PatchsetReview;
 import io.fd.maintainer.plugin.service.push.ReviewerPusher;
 import io.fd.maintainer.plugin.service.push.WarningPusher;
 import io.fd.maintainer.plugin.util.CommonTasks;
@@ -46,6 +53,8 @@ import io.fd.maintainer.plugin.util.WarningGenerator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import org.parboiled.common.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,21 +81,27 @@ public class OnCommittersToBeAddedListener extends SelfDescribingEventListener i
     @Inject
     private Revisions revisions;
 
-    @Inject
-    private Provider<PostReviewers> reviewersProvider;
-
     @Inject
     private Provider<PostReview> reviewProvider;
 
     @Inject
     private SettingsProvider settingsProvider;
 
+    @Inject
+    private ChangeData.Factory changeDataFactory;
+
     @Inject
     private ReviewerPusher reviewerPusher;
 
     @Inject
     private WarningPusher warningPusher;
 
+    @Inject
+    private ProcessingMetrics processingMetrics;
+
+    @Inject
+    private ChangeLocks changeLocks;
+
     OnCommittersToBeAddedListener() {
 
     }
@@ -105,6 +120,8 @@ public class OnCommittersToBeAddedListener extends SelfDescribingEventListener i
             return;
         }
 
+        // budget starts with event, time spent waiting for other events is not counted
+        final Deadline deadline = Deadline.after(settings.getEventTimeoutSeconds(), TimeUnit.SECONDS);
         try (final ReviewDb reviewDb = schemaFactory.open()) {
             final Change.Id changeId = new Change.Id(Integer.valueOf(changeAttributes.number));
             final Change change = reviewDb.changes().get(changeId);
@@ -112,30 +129,60 @@ public class OnCommittersToBeAddedListener extends SelfDescribingEventListener i
             final PatchSet mostCurrentPatchSet = reviewDb.patchSets().get(change.currentPatchSetId());
 
             LOG.info("Processing change {} | patchset {}", change.getId(), mostCurrentPatchSet.getId());
-            final MaintainersIndex index =
-                    new MaintainersIndex(
-                            maintainersProvider.getMaintainersInfo(changeAttributes.branch,
-                                    Integer.valueOf(changeAttributes.number), projectKey));
-
-            reviewerPusher.addRelevantReviewers(index, change, mostCurrentPatchSet, settings.getPluginUserName());
-            LOG.info("Reviewers for change {} successfully added", change.getId());
-
-            final PatchList patchList = getPatchList(patchListCache, change, mostCurrentPatchSet);
-            final List<PatchListEntry> patches = getRelevantPatchListEntries(patchList);
-
-            final Map<PatchListEntry, Tuple2<Set<ComponentPath>, Set<ComponentPath>>> renamedEntryToComponentsIndex =
-                    renamedEntriesToComponentIndex(index, patches);
-
-            final Set<WarningGenerator.ComponentChangeWarning> warnings =
-                    generateComponentChangeWarnings(index, renamedEntryToComponentsIndex);
-            warningPusher.sendWarnings(warnings, change, mostCurrentPatchSet, settings);
-            LOG.info("Warnings for change {} successfully added", change.getId());
+            final Lock changeLock = changeLocks.forChange(changeId);
+            changeLock.lock();
+            try {
+                processPatchset(reviewDb, changeAttributes, projectKey, change, mostCurrentPatchSet, settings,
+                        deadline);
+            } catch (InvalidMaintainersFileException e) {
+                LOG.warn("Unable to process change {}, maintainers file is invalid", change.getId());
+                warningPusher.sendInvalidMaintainersFileWarning(e, change, mostCurrentPatchSet, settings);
+                return;
+            } catch (DeadlineExceededException e) {
+                LOG.warn("Processing of change {} stopped: {}", change.getId(), e.getMessage());
+                processingMetrics.recordTimeout();
+                warningPusher.sendProcessingTimeoutWarning(e, change, mostCurrentPatchSet, settings);
+                return;
+            } finally {
+                changeLock.unlock();
+            }
         } catch (OrmException e) {
             throw new IllegalStateException("Unable to open review DB", e);
         }
         LOG.info("Change {} successfully processed", patchSetCreatedEvent.changeKey);
     }
 
+    private void processPatchset(final ReviewDb reviewDb, final ChangeAttribute changeAttributes,
+                                 final Project.NameKey projectKey,
+                                 final Change change, final PatchSet mostCurrentPatchSet,
+                                 final PluginBranchSpecificSettings settings,
+                                 final Deadline deadline) throws OrmException {
+        final PatchList patchList = getPatchList(patchListCache, change, mostCurrentPatchSet);
+        final List<PatchListEntry> patches = getRelevantPatchListEntries(patchList, settings.getIgnoredPaths());
+
+        final MaintainersIndex index = maintainersProvider.getMaintainersIndex(changeAttributes.branch,
+                Integer.valueOf(changeAttributes.number), projectKey, getAffectedFileNames(patches), deadline);
+
+        // whole output for patchset is posted at once
+        final PatchsetReview review = new PatchsetReview();
+        // reviewers of previous patchsets are kept, so usually no reviewer is missing
+        final Set<Account.Id> currentReviewers = changeDataFactory.create(reviewDb, change).reviewers().all();
+        reviewerPusher.addRelevantReviewers(index, change, mostCurrentPatchSet, currentReviewers, settings,
+                deadline, review);
+
+        deadline.check("generating warnings");
+        final Map<PatchListEntry, Tuple2<Set<ComponentPath>, Set<ComponentPath>>> renamedEntryToComponentsIndex =
+                renamedEntriesToComponentIndex(index, patches);
+
+        final Set<WarningGenerator.ComponentChangeWarning> warnings =
+                generateComponentChangeWarnings(index, renamedEntryToComponentsIndex);
+        warningPusher.addWarnings(warnings, review, settings);
+
+        deadline.check("posting review");
+        reviewerPusher.postReview(review, change, mostCurrentPatchSet, settings);
+        LOG.info("Reviewers and warnings for change {} successfully added", change.getId());
+    }
+
     @Override
     protected boolean canConsume(final Event event) {
         return event instanceof PatchSetCreatedEvent;
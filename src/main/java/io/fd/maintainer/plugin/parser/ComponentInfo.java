@@ -26,9 +26,10 @@ public final class ComponentInfo {
     private final Set<String> comments;
     private final Set<Maintainer> maintainers;
     private final Set<ComponentPath> paths;
+    private final Set<ComponentPath> excludedPaths;
 
     private ComponentInfo(final String title, final Set<String> contactEmails, final Set<Maintainer> maintainers,
-                          final Set<ComponentPath> paths) {
+                          final Set<ComponentPath> paths, final Set<ComponentPath> excludedPaths) {
         this.title = title;
         this.comments = contactEmails == null
                 ? emptySet()
@@ -39,6 +40,9 @@ public final class ComponentInfo {
         this.paths = paths == null
                 ? emptySet()
                 : paths;
+        this.excludedPaths = excludedPaths == null
+                ? emptySet()
+                : excludedPaths;
     }
 
     public String getTitle() {
@@ -57,11 +61,19 @@ public final class ComponentInfo {
         return paths;
     }
 
+    /**
+     * Paths that are not part of component, even if they match any of its paths
+     */
+    public Set<ComponentPath> getExcludedPaths() {
+        return excludedPaths;
+    }
+
     public static class ComponentInfoBuilder {
         private String title;
         private Set<String> contactEmails;
         private Set<Maintainer> maintainers;
         private Set<ComponentPath> paths;
+        private Set<ComponentPath> excludedPaths;
 
         public ComponentInfoBuilder setTitle(final String title) {
             this.title = title;
@@ -83,8 +95,13 @@ public final class ComponentInfo {
             return this;
         }
 
+        public ComponentInfoBuilder setExcludedPaths(final Set<ComponentPath> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+            return this;
+        }
+
         public ComponentInfo createMaintainer() {
-            return new ComponentInfo(title, contactEmails, maintainers, paths);
+            return new ComponentInfo(title, contactEmails, maintainers, paths, excludedPaths);
         }
     }
 }
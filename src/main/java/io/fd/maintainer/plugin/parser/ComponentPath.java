@@ -22,92 +22,113 @@ import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.PARTIAL;
 import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.WILDCARD_ONLY;
 import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
+/**
+ * Path pattern of component. Pattern is matched per segment, each segment can be literal, glob with *, ? or [abc],
+ * or ** matching any number of directories. Pattern ending with / matches everything below such directory. Literal
+ * pattern matches file itself or anything below it. Wildcard in last segment of pattern without ** matches files
+ * in all subdirectories, so foo/*.mk is the same as foo/**&#47;*.mk
+ */
 public class ComponentPath {
 
+    static final String SEPARATOR = "/";
+    static final String ANY_PATH = "**";
+
     private final String path;
+    // path segments are shared across all paths, as most of them starts with the same directories
+    private final String[] pathParts;
+    // level of match if matched path ends with last segment
+    private final MatchLevel fileLevel;
+    // level of match if matched path continues below last segment
+    private final MatchLevel directoryLevel;
+    // compiled lazily for single path matching, index compiles all paths together
+    private volatile ComponentPathMatcher matcher;
 
     public ComponentPath(final String path) {
-        this.path = path;
+        this.path = ParserInterners.intern(path);
+        if (path == null) {
+            pathParts = new String[0];
+            fileLevel = NONE;
+            directoryLevel = NONE;
+            return;
+        }
+
+        final List<String> segments = new ArrayList<>();
+        Arrays.stream(path.split(SEPARATOR))
+                .filter(segment -> !segment.isEmpty())
+                .map(ParserInterners::intern)
+                .forEach(segments::add);
+        boolean directory = path.endsWith(SEPARATOR);
+        final boolean glob = segments.stream().anyMatch(GlobSegment::isGlob);
+
+        if (!glob) {
+            fileLevel = directory
+                    ? NONE
+                    : FULL;
+            directoryLevel = PARTIAL;
+        } else {
+            // foo/** is the same as foo/
+            if (!segments.isEmpty() && ANY_PATH.equals(segments.get(segments.size() - 1))) {
+                segments.remove(segments.size() - 1);
+                directory = true;
+            }
+
+            final String last = segments.isEmpty()
+                    ? ""
+                    : segments.get(segments.size() - 1);
+            if (!directory && !segments.contains(ANY_PATH) && GlobSegment.isGlob(last)) {
+                segments.add(segments.size() - 1, ANY_PATH);
+            }
+
+            fileLevel = directory
+                    ? NONE
+                    : GlobSegment.hasExtension(last)
+                            ? WILDCARD_WITH_EXTENSION
+                            : WILDCARD_ONLY;
+            directoryLevel = directory
+                    ? WILDCARD_ONLY
+                    : NONE;
+        }
+        pathParts = segments.toArray(new String[segments.size()]);
     }
 
     public String getPath() {
         return path;
     }
 
-    public MatchLevel matchAgainst(final String path) {
-        // initial match level is NONE unless full match
-        if (path == null) {
-            return NONE;
-        }
+    String[] getPathParts() {
+        return pathParts;
+    }
 
-        MatchLevel matchLevel = this.path.equals(path)
-                ? FULL
-                : NONE;
-        // trims down wildcard
-
-        if (matchLevel == NONE) {
-            final int indexOfWildcard = this.path.indexOf("*");
-
-            if (-1 != indexOfWildcard) {
-                final String wildcardLess = this.path.replace(this.path.substring(indexOfWildcard), "");
-                if (path.contains(wildcardLess)) {
-                    matchLevel = this.path.equals(wildcardLess)
-                            // if path does not have wildcard, its partial match
-                            ? PARTIAL
-                            // if it has, by previous match its proven that it matches wildcard
-                            : WILDCARD_ONLY;
+    MatchLevel getFileLevel() {
+        return fileLevel;
+    }
 
-                    final int extensionStart = this.path.lastIndexOf(".");
-                    final String componentExtension = extension(extensionStart, this.path);
-
-                    if (!componentExtension.isEmpty()) {
-                        // meaning that index of last dot was found,therefore extension is present
-                        if (-1 != extensionStart && extension(path).equals(componentExtension)) {
-                            matchLevel = WILDCARD_WITH_EXTENSION;
-                        } else {
-                            // matches wildcard but not the extension
-                            matchLevel = NONE;
-                        }
-                    }
-                }
-            } else {
-                // not a wildcard path ,therefore attempts match it as direct child
-                final String[] componentPathParts = this.path.split("/");
-                final String[] matchedPathParts = path.split("/");
-
-                matchLevel = matchedPathParts.length - componentPathParts.length > 1
-                        ?
-                        NONE
-                        : matchPathsAsDirectChild(componentPathParts, matchedPathParts);
-            }
-        }
-        return matchLevel;
+    MatchLevel getDirectoryLevel() {
+        return directoryLevel;
     }
 
-    private MatchLevel matchPathsAsDirectChild(final String[] componentPath, final String[] matchedPath) {
-        for (int i = 0; i < componentPath.length; i++) {
-            if (componentPath[i].equals(matchedPath[i])) {
-                // dir equals,continue
-                continue;
-            }
-            // as soon as dir is not equal, return NONE
+    public MatchLevel matchAgainst(final String path) {
+        if (path == null) {
             return NONE;
         }
-        // everything has been matched, therefore partial
-        return PARTIAL;
-    }
 
-    private String extension(final int extensionStart, final String path) {
-        if (-1 == extensionStart) {
-            return "";
+        if (matcher == null) {
+            matcher = new ComponentPathMatcher(Collections.singletonList(this));
         }
-        return path.substring(extensionStart + 1);
-    }
 
-    private String extension(final String path) {
-        return extension(path.lastIndexOf("."), path);
+        final MatchLevel[] matchLevel = {NONE};
+        matcher.match(path, (pathIndex, level) -> {
+            if (MatchLevel.MAX.compare(level, matchLevel[0]) > 0) {
+                matchLevel[0] = level;
+            }
+        });
+        return matchLevel[0];
     }
 
     @Override
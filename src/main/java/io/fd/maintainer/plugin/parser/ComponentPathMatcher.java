@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import static io.fd.maintainer.plugin.parser.ComponentPath.ANY_PATH;
+import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.NONE;
+
+import io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Segment trie of any number of component paths. Each path is matched by single walk over its segments, so time of
+ * match depends on length of path and not on number of patterns
+ */
+public final class ComponentPathMatcher {
+
+    private final Node root;
+    private final int nodeCount;
+
+    // fast negative filter, path can match only if its first directory or its extension is known
+    private final Set<String> firstSegments = new HashSet<>();
+    private final Set<String> anyDepthExtensions = new HashSet<>();
+    private boolean unconstrained;
+
+    /**
+     * @param paths patterns to compile, position in list is reported as index of matched pattern
+     */
+    public ComponentPathMatcher(@Nonnull final List<ComponentPath> paths) {
+        final List<Node> nodes = new ArrayList<>();
+        root = new Node(nodes);
+        for (int i = 0; i < paths.size(); i++) {
+            add(nodes, i, paths.get(i));
+        }
+        nodeCount = nodes.size();
+    }
+
+    private void add(final List<Node> nodes, final int pathIndex, final ComponentPath path) {
+        addToFilter(path);
+        Node current = root;
+        for (String segment : path.getPathParts()) {
+            current = current.child(nodes, segment);
+        }
+
+        if (path.getFileLevel() != NONE) {
+            current.fileMatches.add(new PathMatch(pathIndex, path.getFileLevel()));
+        }
+        if (path.getDirectoryLevel() != NONE) {
+            current.directoryMatches.add(new PathMatch(pathIndex, path.getDirectoryLevel()));
+        }
+    }
+
+    private void addToFilter(final ComponentPath path) {
+        final String[] parts = path.getPathParts();
+        if (parts.length == 0) {
+            unconstrained = true;
+        } else if (!ANY_PATH.equals(parts[0])) {
+            // glob in first directory is checked against first segment of path
+            firstSegments.add(parts[0]);
+        } else if (parts.length == 2 && path.getFileLevel() != NONE && GlobSegment.hasExtension(parts[1])) {
+            // patterns like *.mk
+            anyDepthExtensions.add(extension(parts[1]));
+        } else {
+            unconstrained = true;
+        }
+    }
+
+    private static String extension(final String segment) {
+        final int extensionStart = segment.lastIndexOf('.');
+        return extensionStart == -1
+                ? ""
+                : segment.substring(extensionStart);
+    }
+
+    /**
+     * Tells whether any pattern could match provided path. False means that path does not match for sure, so it can
+     * be used to skip unowned paths without walking the trie
+     */
+    public boolean mayMatch(@Nonnull final String path) {
+        if (unconstrained) {
+            return true;
+        }
+
+        final int firstSegmentEnd = path.indexOf('/');
+        final String firstSegment = firstSegmentEnd == -1
+                ? path
+                : path.substring(0, firstSegmentEnd);
+        if (firstSegments.contains(firstSegment)) {
+            return true;
+        }
+        for (GlobChild child : root.globChildren.values()) {
+            if (child.glob.matches(firstSegment)) {
+                return true;
+            }
+        }
+
+        return !anyDepthExtensions.isEmpty()
+                && anyDepthExtensions.contains(extension(path.substring(path.lastIndexOf('/') + 1)));
+    }
+
+    /**
+     * Reports all patterns matching provided path. Single pattern can be reported more than once
+     */
+    public void match(@Nonnull final String path, @Nonnull final MatchConsumer consumer) {
+        List<Node> active = new ArrayList<>();
+        root.addTo(active, new BitSet(nodeCount));
+
+        int segmentStart = 0;
+        while (segmentStart <= path.length() && !active.isEmpty()) {
+            int segmentEnd = path.indexOf('/', segmentStart);
+            if (segmentEnd == -1) {
+                segmentEnd = path.length();
+            }
+            if (segmentEnd == segmentStart) {
+                // empty segment of path like foo//bar or trailing /
+                segmentStart = segmentEnd + 1;
+                continue;
+            }
+
+            final String segment = path.substring(segmentStart, segmentEnd);
+            final List<Node> next = new ArrayList<>();
+            final BitSet nextVisited = new BitSet(nodeCount);
+            for (Node node : active) {
+                // there is at least this segment below node, so all directory patterns of node match
+                node.directoryMatches.forEach(match -> consumer.accept(match.pathIndex, match.level));
+                node.step(segment, next, nextVisited);
+            }
+            active = next;
+            segmentStart = segmentEnd + 1;
+        }
+
+        for (Node node : active) {
+            node.fileMatches.forEach(match -> consumer.accept(match.pathIndex, match.level));
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchConsumer {
+        void accept(int pathIndex, MatchLevel level);
+    }
+
+    private static final class Node {
+        private final int id;
+        private final Map<String, Node> literalChildren = new HashMap<>();
+        private final Map<String, GlobChild> globChildren = new LinkedHashMap<>();
+        // node reached by ** , it can consume any segment and stay where it is
+        private final boolean anyPath;
+        private Node anyPathChild;
+        private final List<PathMatch> fileMatches = new ArrayList<>();
+        private final List<PathMatch> directoryMatches = new ArrayList<>();
+
+        private Node(final List<Node> nodes) {
+            this(nodes, false);
+        }
+
+        private Node(final List<Node> nodes, final boolean anyPath) {
+            this.id = nodes.size();
+            this.anyPath = anyPath;
+            nodes.add(this);
+        }
+
+        private Node child(final List<Node> nodes, final String segment) {
+            if (ANY_PATH.equals(segment)) {
+                if (anyPathChild == null) {
+                    anyPathChild = new Node(nodes, true);
+                }
+                return anyPathChild;
+            }
+
+            if (!GlobSegment.isGlob(segment)) {
+                return literalChildren.computeIfAbsent(segment, key -> new Node(nodes));
+            }
+
+            return globChildren.computeIfAbsent(segment, key -> new GlobChild(key, new Node(nodes))).node;
+        }
+
+        // adds node together with everything reachable by ** matching zero segments
+        private void addTo(final List<Node> active, final BitSet visited) {
+            if (visited.get(id)) {
+                return;
+            }
+            visited.set(id);
+            active.add(this);
+            if (anyPathChild != null) {
+                anyPathChild.addTo(active, visited);
+            }
+        }
+
+        private void step(final String segment, final List<Node> next, final BitSet nextVisited) {
+            final Node literal = literalChildren.get(segment);
+            if (literal != null) {
+                literal.addTo(next, nextVisited);
+            }
+            for (GlobChild child : globChildren.values()) {
+                if (child.glob.matches(segment)) {
+                    child.node.addTo(next, nextVisited);
+                }
+            }
+            if (anyPath) {
+                addTo(next, nextVisited);
+            }
+        }
+    }
+
+    private static final class GlobChild {
+        private final GlobSegment glob;
+        private final Node node;
+
+        private GlobChild(final String glob, final Node node) {
+            this.glob = new GlobSegment(glob);
+            this.node = node;
+        }
+    }
+
+    private static final class PathMatch {
+        private final int pathIndex;
+        private final MatchLevel level;
+
+        private PathMatch(final int pathIndex, final MatchLevel level) {
+            this.pathIndex = pathIndex;
+            this.level = level;
+        }
+    }
+}
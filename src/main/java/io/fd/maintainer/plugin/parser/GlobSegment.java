@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled glob for single path segment. Supports * (any characters), ? (single character) and character classes
+ * like [abc], [a-z] or [!abc]
+ */
+final class GlobSegment {
+
+    private static final char ANY_STRING = '*';
+    private static final char ANY_CHAR = '?';
+    private static final char CLASS_START = '[';
+    private static final char CLASS_END = ']';
+
+    private final String glob;
+    private final Token[] tokens;
+
+    GlobSegment(final String glob) {
+        this.glob = glob;
+        this.tokens = compile(glob);
+    }
+
+    static boolean isGlob(final String segment) {
+        return segment.indexOf(ANY_STRING) != -1
+                || segment.indexOf(ANY_CHAR) != -1
+                || segment.indexOf(CLASS_START) != -1;
+    }
+
+    /**
+     * Tells whether glob ends with literal extension, for ex.: *.mk
+     */
+    static boolean hasExtension(final String segment) {
+        final int extensionStart = segment.lastIndexOf('.');
+        return extensionStart != -1
+                && extensionStart < segment.length() - 1
+                && !isGlob(segment.substring(extensionStart))
+                && isGlob(segment.substring(0, extensionStart));
+    }
+
+    private static Token[] compile(final String glob) {
+        final List<Token> compiled = new ArrayList<>();
+        for (int i = 0; i < glob.length(); i++) {
+            final char current = glob.charAt(i);
+            if (current == ANY_STRING) {
+                // consecutive stars are the same as single one
+                if (compiled.isEmpty() || compiled.get(compiled.size() - 1).kind != TokenKind.ANY_STRING) {
+                    compiled.add(new Token(TokenKind.ANY_STRING, null, false));
+                }
+            } else if (current == ANY_CHAR) {
+                compiled.add(new Token(TokenKind.ANY_CHAR, null, false));
+            } else if (current == CLASS_START && glob.indexOf(CLASS_END, i + 2) != -1) {
+                // first character after [ or [! is always part of class, so []] can be used
+                int classStart = i + 1;
+                final boolean negated = glob.charAt(classStart) == '!' || glob.charAt(classStart) == '^';
+                if (negated) {
+                    classStart++;
+                }
+                final int classEnd = glob.indexOf(CLASS_END, classStart + 1);
+                if (classEnd == -1) {
+                    compiled.add(new Token(TokenKind.LITERAL, String.valueOf(current), false));
+                    continue;
+                }
+                compiled.add(new Token(TokenKind.CLASS, glob.substring(classStart, classEnd), negated));
+                i = classEnd;
+            } else {
+                compiled.add(new Token(TokenKind.LITERAL, String.valueOf(current), false));
+            }
+        }
+        return compiled.toArray(new Token[compiled.size()]);
+    }
+
+    boolean matches(final String segment) {
+        int token = 0;
+        int position = 0;
+        // last seen * and position in segment it started to consume from, used to backtrack
+        int starToken = -1;
+        int starPosition = -1;
+
+        while (position < segment.length()) {
+            if (token < tokens.length && tokens[token].kind == TokenKind.ANY_STRING) {
+                starToken = token++;
+                starPosition = position;
+            } else if (token < tokens.length && tokens[token].matches(segment.charAt(position))) {
+                token++;
+                position++;
+            } else if (starToken != -1) {
+                token = starToken + 1;
+                position = ++starPosition;
+            } else {
+                return false;
+            }
+        }
+
+        while (token < tokens.length && tokens[token].kind == TokenKind.ANY_STRING) {
+            token++;
+        }
+        return token == tokens.length;
+    }
+
+    @Override
+    public String toString() {
+        return "GlobSegment{" +
+                "glob='" + glob + '\'' +
+                '}';
+    }
+
+    private enum TokenKind {
+        LITERAL,
+        ANY_CHAR,
+        ANY_STRING,
+        CLASS
+    }
+
+    private static final class Token {
+        private final TokenKind kind;
+        private final String characters;
+        private final boolean negated;
+
+        private Token(final TokenKind kind, final String characters, final boolean negated) {
+            this.kind = kind;
+            this.characters = characters;
+            this.negated = negated;
+        }
+
+        private boolean matches(final char c) {
+            switch (kind) {
+                case LITERAL:
+                    return characters.charAt(0) == c;
+                case ANY_CHAR:
+                    return true;
+                case CLASS:
+                    return classMatches(c) != negated;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean classMatches(final char c) {
+            for (int i = 0; i < characters.length(); i++) {
+                // range like a-z, trailing - is literal
+                if (i + 2 < characters.length() && characters.charAt(i + 1) == '-') {
+                    if (characters.charAt(i) <= c && c <= characters.charAt(i + 2)) {
+                        return true;
+                    }
+                    i += 2;
+                } else if (characters.charAt(i) == c) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
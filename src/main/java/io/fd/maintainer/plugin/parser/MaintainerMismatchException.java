@@ -21,7 +21,26 @@ package io.fd.maintainer.plugin.parser;
  */
 public class MaintainerMismatchException extends Exception {
 
+    private final int line;
+
     public MaintainerMismatchException(String cause) {
-        super(cause);
+        this(cause, 0);
+    }
+
+    /**
+     * @param line number of line of maintainers file that caused the mismatch, starting from 1
+     */
+    public MaintainerMismatchException(String cause, int line) {
+        super(line > 0
+                ? "Line " + line + ": " + cause
+                : cause);
+        this.line = line;
+    }
+
+    /**
+     * Number of line that caused the mismatch, 0 if unknown
+     */
+    public int getLine() {
+        return line;
     }
 }
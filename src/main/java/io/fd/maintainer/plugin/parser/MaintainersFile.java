@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed content of maintainers file. Keeps components by hash of text of block they were parsed from, so that
+ * next version of file can reuse components of blocks that did not change
+ */
+public final class MaintainersFile {
+
+    private final ImmutableList<ComponentInfo> components;
+    private final ImmutableMap<HashCode, ComponentInfo> componentsByBlock;
+    private final int reusedBlocks;
+
+    MaintainersFile(final List<ComponentInfo> components, final Map<HashCode, ComponentInfo> componentsByBlock,
+                    final int reusedBlocks) {
+        this.components = ImmutableList.copyOf(components);
+        this.componentsByBlock = ImmutableMap.copyOf(componentsByBlock);
+        this.reusedBlocks = reusedBlocks;
+    }
+
+    public List<ComponentInfo> getComponents() {
+        return components;
+    }
+
+    /**
+     * Number of blocks taken over from previous version of file without parsing
+     */
+    public int getReusedBlocks() {
+        return reusedBlocks;
+    }
+
+    ComponentInfo getComponent(final HashCode block) {
+        return componentsByBlock.get(block);
+    }
+}
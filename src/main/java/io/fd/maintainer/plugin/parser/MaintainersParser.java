@@ -16,17 +16,25 @@
 
 package io.fd.maintainer.plugin.parser;
 
-import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 public final class MaintainersParser {
@@ -34,52 +42,79 @@ public final class MaintainersParser {
     private static final String HEADER_SPLITTER = "-----";
     private static final String MAINTAINER_TOKEN = "M:";
     private static final String FILEPATH_TOKEN = "F:";
+    private static final String EXCLUDED_FILEPATH_TOKEN = "X:";
     private static final String COMMENT_TOKEN = "C:";
     private static final String EMAIL_START_TOKEN = "<";
     private static final String EMAIL_END_TOKEN = ">";
+    private static final HashFunction BLOCK_HASH = Hashing.murmur3_128();
 
-    private static ComponentInfo parseBlock(final Set<String> blockLines) throws MaintainerMismatchException {
-        checkState(blockLines.size() >= 3, "Unable to parse block from %s", blockLines);
+    // block lines are consecutive, so line number of each one is derived from number of first one
+    private static ComponentInfo parseBlock(final List<String> blockLines, final int firstLine,
+                                            final String directory) throws MaintainerMismatchException {
+        if (new HashSet<>(blockLines).size() < 3) {
+            throw new MaintainerMismatchException(format("Unable to parse block from %s", blockLines), firstLine);
+        }
 
         String title = null;
         Set<Maintainer> maintainers = new HashSet<>();
         Set<ComponentPath> paths = new HashSet<>();
+        Set<ComponentPath> excludedPaths = new HashSet<>();
         Set<String> comments = new HashSet<>();
 
-        for (String line : blockLines) {
+        for (int i = 0; i < blockLines.size(); i++) {
+            final String line = blockLines.get(i);
             if (line.startsWith(MAINTAINER_TOKEN)) {
-                maintainers.add(new Maintainer.MaintainerBuilder()
-                        .setName(extractMaintainer(line))
-                        .setEmail(extractEmail(line))
-                        .createMaintainer());
+                if (!isValidMaintainer(line)) {
+                    throw new MaintainerMismatchException(
+                            format("Maintainer %s is not in format Full Name <address@domain>", line), firstLine + i);
+                }
+                maintainers.add(ParserInterners.intern(new Maintainer.MaintainerBuilder()
+                        .setName(ParserInterners.intern(extractMaintainer(line)))
+                        .setEmail(ParserInterners.intern(extractEmail(line)))
+                        .createMaintainer()));
                 continue;
             }
 
             if (line.startsWith(FILEPATH_TOKEN)) {
-                paths.add(new ComponentPath(extractComponentPath(line)));
+                paths.add(ParserInterners.intern(new ComponentPath(
+                        inDirectory(directory, extractComponentPath(line, FILEPATH_TOKEN)))));
+                continue;
+            }
+
+            if (line.startsWith(EXCLUDED_FILEPATH_TOKEN)) {
+                excludedPaths.add(ParserInterners.intern(new ComponentPath(
+                        inDirectory(directory, extractComponentPath(line, EXCLUDED_FILEPATH_TOKEN)))));
                 continue;
             }
 
             if (line.startsWith(COMMENT_TOKEN)) {
-                comments.add(line);
+                comments.add(ParserInterners.intern(line));
                 continue;
             }
 
-            if (title != null) {
-                throw new MaintainerMismatchException(format("Multiple title specified for block %s", blockLines));
+            // same line repeated is not considered as another title
+            if (title != null && !title.equals(line)) {
+                throw new MaintainerMismatchException(format("Multiple title specified for block %s", blockLines),
+                        firstLine + i);
             }
 
-            title = line.trim();
+            title = ParserInterners.intern(line.trim());
         }
 
         return new ComponentInfo.ComponentInfoBuilder()
                 .setTitle(title)
                 .setMaintainers(maintainers)
                 .setPaths(paths)
+                .setExcludedPaths(excludedPaths)
                 .setComments(comments)
                 .createMaintainer();
     }
 
+    private static boolean isValidMaintainer(final String rawString) {
+        final int emailStart = rawString.indexOf(EMAIL_START_TOKEN);
+        return emailStart != -1 && rawString.indexOf(EMAIL_END_TOKEN, emailStart) != -1;
+    }
+
     // raw input in format : M:	Name Surname <example@example.com>
     private static String extractMaintainer(final String rawString) {
         return rawString.substring(0, rawString.indexOf(EMAIL_START_TOKEN)).replace(MAINTAINER_TOKEN, "").trim();
@@ -90,50 +125,102 @@ public final class MaintainersParser {
         return rawString.substring(rawString.indexOf(EMAIL_START_TOKEN) + 1, rawString.indexOf(EMAIL_END_TOKEN)).trim();
     }
 
-    // raw input in format : F:	src/tools/perftool/
-    private static String extractComponentPath(final String rawString) {
-        return rawString.replace(FILEPATH_TOKEN, "").trim();
+    // raw input in format : F:	src/tools/perftool/ or X:	src/tools/perftool/test/
+    private static String extractComponentPath(final String rawString, final String token) {
+        return rawString.substring(token.length()).trim();
     }
 
-    public List<ComponentInfo> parseMaintainers(@Nonnull final String rawContent) throws MaintainerMismatchException {
-        final List<String> lines =
-                Arrays.stream(rawContent.split(System.lineSeparator())).collect(Collectors.toList());
-        int lastHeaderLine;
-        for (lastHeaderLine = 0; lastHeaderLine < lines.size(); lastHeaderLine++) {
-            if (lines.get(lastHeaderLine).contains(HEADER_SPLITTER)) {
-                break;
-            }
+    private static String inDirectory(final String directory, final String path) {
+        if (directory.isEmpty()) {
+            return path;
         }
+        return path.startsWith("/")
+                ? directory + path
+                : directory + "/" + path;
+    }
 
-        List<String> headerLessLines = lines.stream().skip(lastHeaderLine + 1).collect(Collectors.toList());
-        final List<Set<String>> blocks = new LinkedList<>();
+    public List<ComponentInfo> parseMaintainers(@Nonnull final String rawContent) throws MaintainerMismatchException {
+        return parse(rawContent, null).getComponents();
+    }
 
-        while (!headerLessLines.isEmpty()) {
-            final int nextBlockEnd = nextBlockEnd(headerLessLines);
-            final Set<String> nextBlock = headerLessLines.stream().limit(nextBlockEnd + 1).map(
-                    String::trim).filter(line -> !line.isEmpty()).collect(Collectors.toSet());
-            blocks.add(nextBlock);
-            headerLessLines =
-                    headerLessLines.stream().unordered().skip(nextBlockEnd + 1).collect(Collectors.toList());
-        }
+    /**
+     * Parses maintainers file, blocks with the same text as in previous version of file are not parsed again
+     */
+    public MaintainersFile parse(@Nonnull final String rawContent, @Nullable final MaintainersFile previous)
+            throws MaintainerMismatchException {
+        return parse(rawContent, previous, "");
+    }
 
-        List<ComponentInfo> componentInfos = new ArrayList<>();
-        for (Set<String> block : blocks) {
-            if (block.size() > 0) {
-                componentInfos.add(parseBlock(block));
-            }
+    /**
+     * Parses maintainers file stored in subdirectory of repository, its paths are relative to such directory
+     */
+    public MaintainersFile parse(@Nonnull final String rawContent, @Nullable final MaintainersFile previous,
+                                 @Nonnull final String directory) throws MaintainerMismatchException {
+        try {
+            return parse(new StringReader(rawContent), previous, directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read maintainers content", e);
         }
-        return componentInfos;
     }
 
-    private int nextBlockEnd(final List<String> lines) {
+    /**
+     * Parses maintainers file line by line, so that only currently parsed block is kept in memory
+     */
+    public MaintainersFile parse(@Nonnull final Reader content, @Nullable final MaintainersFile previous,
+                                 @Nonnull final String directory) throws IOException, MaintainerMismatchException {
+        final BufferedReader reader = content instanceof BufferedReader
+                ? (BufferedReader) content
+                : new BufferedReader(content);
+
+        String line;
+        int lineNumber = 0;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && !line.contains(HEADER_SPLITTER));
+
+        final List<ComponentInfo> componentInfos = new ArrayList<>();
+        final Map<HashCode, ComponentInfo> componentsByBlock = new HashMap<>();
+        final List<String> block = new ArrayList<>();
+        Hasher blockHasher = BLOCK_HASH.newHasher();
+        int reusedBlocks = 0;
+        int blockStart = 0;
+        while (line != null) {
+            line = reader.readLine();
+            lineNumber++;
+            final String trimmed = line == null
+                    ? ""
+                    : line.trim();
+            if (!trimmed.isEmpty()) {
+                if (block.isEmpty()) {
+                    blockStart = lineNumber;
+                }
+                block.add(trimmed);
+                blockHasher.putString(trimmed, StandardCharsets.UTF_8).putByte((byte) '\n');
+                continue;
+            }
+            if (block.isEmpty()) {
+                continue;
+            }
 
-        for (int end = 0; end < lines.size(); end++) {
-            if (lines.get(end).trim().isEmpty()) {
-                return end;
+            // blocks are identified by hash of their text, so that text does not need to be kept
+            final HashCode blockHash = blockHasher.hash();
+            ComponentInfo component = previous == null
+                    ? null
+                    : previous.getComponent(blockHash);
+            if (component == null) {
+                component = componentsByBlock.get(blockHash);
+            }
+            if (component == null) {
+                component = parseBlock(block, blockStart, directory);
+            } else {
+                reusedBlocks++;
             }
+            componentInfos.add(component);
+            componentsByBlock.put(blockHash, component);
+            block.clear();
+            blockHasher = BLOCK_HASH.newHasher();
         }
-        //EOF
-        return lines.size();
+        return new MaintainersFile(componentInfos, componentsByBlock, reusedBlocks);
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.parser;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Shared pools of parsed values. The same maintainers, titles and paths appear in many components and in maintainers
+ * files of many projects/branches, so all loaded indexes share single instance of each. Pools are weakly referenced,
+ * so values are released as soon as no index uses them
+ */
+final class ParserInterners {
+
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+    private static final Interner<Maintainer> MAINTAINERS = Interners.newWeakInterner();
+    private static final Interner<ComponentPath> PATHS = Interners.newWeakInterner();
+
+    private ParserInterners() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    static String intern(final String value) {
+        return value == null
+                ? null
+                : STRINGS.intern(value);
+    }
+
+    static Maintainer intern(final Maintainer maintainer) {
+        return MAINTAINERS.intern(maintainer);
+    }
+
+    static ComponentPath intern(final ComponentPath path) {
+        return PATHS.intern(path);
+    }
+}
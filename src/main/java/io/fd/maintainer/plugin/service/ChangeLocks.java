@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.inject.Singleton;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.Nonnull;
+
+/**
+ * Serializes processing of the same change, while different changes are processed in parallel. Locks are striped,
+ * so their number does not grow with number of changes
+ */
+@Singleton
+public class ChangeLocks {
+
+    private static final int STRIPES = 256;
+
+    private final Striped<Lock> locks = Striped.lock(STRIPES);
+
+    /**
+     * Returns lock of the change, the same lock is returned for the same change
+     */
+    public Lock forChange(@Nonnull final Change.Id changeId) {
+        return locks.get(changeId.get());
+    }
+}
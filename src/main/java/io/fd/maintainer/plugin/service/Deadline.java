@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Time budget for processing of single event. Processing is not interrupted, instead it checks deadline between its
+ * steps and gives up once budget is spent
+ */
+public final class Deadline {
+
+    /**
+     * Deadline that never expires
+     */
+    public static final Deadline NONE = new Deadline(0, Ticker.systemTicker());
+
+    private final long timeoutNanos;
+    private final Ticker ticker;
+    private final long start;
+
+    @VisibleForTesting
+    Deadline(final long timeoutNanos, @Nonnull final Ticker ticker) {
+        this.timeoutNanos = timeoutNanos;
+        this.ticker = ticker;
+        this.start = ticker.read();
+    }
+
+    /**
+     * Returns deadline expiring after timeout from now, timeout that is not positive means no deadline
+     */
+    public static Deadline after(final long timeout, @Nonnull final TimeUnit unit) {
+        return timeout > 0
+                ? new Deadline(unit.toNanos(timeout), Ticker.systemTicker())
+                : NONE;
+    }
+
+    public boolean isExpired() {
+        // difference of ticks is compared, as ticker may overflow
+        return timeoutNanos > 0 && ticker.read() - start >= timeoutNanos;
+    }
+
+    /**
+     * Checks that budget is not spent yet, before processing continues with next step
+     *
+     * @param stage step of processing that is about to be done
+     * @throws DeadlineExceededException if budget is spent
+     */
+    public void check(@Nonnull final String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage, TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown if processing of event did not fit into its time budget
+ */
+public class DeadlineExceededException extends IllegalStateException {
+
+    private final String stage;
+
+    public DeadlineExceededException(@Nonnull final String stage, final long timeoutMillis) {
+        super(format("Processing exceeded time budget of %s ms before %s", timeoutMillis, stage));
+        this.stage = stage;
+    }
+
+    /**
+     * Step of processing that was not done anymore
+     */
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static java.lang.String.format;
+
+import io.fd.maintainer.plugin.parser.MaintainerMismatchException;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Thrown if maintainers file relevant for the change can not be parsed. Failure is remembered per blob of the file,
+ * so it is thrown without reading the file again
+ */
+public class InvalidMaintainersFileException extends IllegalStateException {
+
+    private final ObjectId fileId;
+    private final MaintainerMismatchException mismatch;
+
+    public InvalidMaintainersFileException(@Nonnull final ObjectId fileId,
+                                           @Nonnull final MaintainerMismatchException mismatch) {
+        super(format("Maintainers file %s is invalid: %s", fileId.getName(), mismatch.getMessage()), mismatch);
+        this.fileId = fileId;
+        this.mismatch = mismatch;
+    }
+
+    public ObjectId getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Number of line that made the file invalid, 0 if unknown
+     */
+    public int getLine() {
+        return mismatch.getLine();
+    }
+
+    public String getReason() {
+        return mismatch.getMessage();
+    }
+}
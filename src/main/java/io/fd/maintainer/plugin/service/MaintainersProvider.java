@@ -17,32 +17,59 @@
 package io.fd.maintainer.plugin.service;
 
 import static java.lang.String.format;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.Project;
 import com.google.gerrit.reviewdb.server.ReviewDb;
 import com.google.gerrit.server.git.GitRepositoryManager;
 import com.google.gwtorm.server.OrmException;
+import com.google.gwtorm.server.ResultSet;
 import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.parser.MaintainerMismatchException;
+import io.fd.maintainer.plugin.parser.MaintainersFile;
 import io.fd.maintainer.plugin.parser.MaintainersParser;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.ClosestMatch;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
@@ -53,7 +80,26 @@ import org.slf4j.LoggerFactory;
 public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaintainersProvider.class);
+    // index is cached by id of maintainers file blob, expires to pick up newly created accounts of maintainers
+    private static final long INDEX_CACHE_SIZE = 64;
+    private static final long INDEX_CACHE_EXPIRATION_MINUTES = 60;
+    // maintainers files in subdirectories, cached by directory and blob id as their paths are relative to directory
+    private static final long SHARD_CACHE_SIZE = 1024;
+    private static final long SHARD_PROBE_CACHE_SIZE = 16384;
+
     final MaintainersParser maintainersParser;
+    private final Cache<ObjectId, IndexVersion> indexCache;
+    // blobs that failed to parse, so that events for broken file fail without reading and parsing it again
+    private final Cache<ObjectId, MaintainerMismatchException> invalidFiles;
+    // most recent index per maintainers file configuration, readers use it without locking
+    private final ConcurrentMap<IndexKey, AtomicReference<IndexSnapshot>> snapshots;
+    private final Cache<String, MaintainersFile> shardCache;
+    // whether directory of tree contains maintainers file
+    private final Cache<String, Optional<ObjectId>> shardProbeCache;
+    // root index merged with shards, keyed by ids of all files it was built from
+    private final Cache<String, MaintainersIndex> shardedIndexCache;
+    // maintainers files changed by ref tip commit itself, by tip and path, as history search skips tip commit
+    private final Cache<String, ObjectId> tipFiles;
     @Inject
     private GitRepositoryManager manager;
     @Inject
@@ -63,11 +109,54 @@ public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
 
     public MaintainersProvider() {
         maintainersParser = new MaintainersParser();
+        indexCache = CacheBuilder.newBuilder()
+                .maximumSize(INDEX_CACHE_SIZE)
+                .expireAfterWrite(INDEX_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+                .build();
+        invalidFiles = CacheBuilder.newBuilder()
+                .maximumSize(INDEX_CACHE_SIZE)
+                .build();
+        snapshots = new ConcurrentHashMap<>();
+        shardCache = CacheBuilder.newBuilder()
+                .maximumSize(SHARD_CACHE_SIZE)
+                .build();
+        shardProbeCache = CacheBuilder.newBuilder()
+                .maximumSize(SHARD_PROBE_CACHE_SIZE)
+                .build();
+        shardedIndexCache = CacheBuilder.newBuilder()
+                .maximumSize(INDEX_CACHE_SIZE)
+                .expireAfterWrite(INDEX_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+                .build();
+        tipFiles = CacheBuilder.newBuilder()
+                .maximumSize(SHARD_CACHE_SIZE)
+                .build();
+    }
+
+    private static String tipFileKey(final ObjectId refTip, final String filePath) {
+        return refTip.getName() + ":" + filePath;
     }
 
+    /**
+     * Returns index build from maintainers file relevant for the branch of the change. Index is cached per version
+     * of maintainers file, so accounts of maintainers are resolved only once per version
+     */
     @Nonnull
-    public List<ComponentInfo> getMaintainersInfo(@Nonnull final String branchName, final int changeNumber,
-                                                  @Nonnull final Project.NameKey projectKey) {
+    public MaintainersIndex getMaintainersIndex(@Nonnull final String branchName, final int changeNumber,
+                                                @Nonnull final Project.NameKey projectKey) {
+        return getMaintainersIndex(branchName, changeNumber, projectKey, Collections.emptySet(), Deadline.NONE);
+    }
+
+    /**
+     * Returns index relevant for affected files of the change. If maintainers shards are enabled for branch,
+     * maintainers files found in parent directories of affected files are merged into index
+     *
+     * @throws DeadlineExceededException if deadline expires while searching history of maintainers file
+     */
+    @Nonnull
+    public MaintainersIndex getMaintainersIndex(@Nonnull final String branchName, final int changeNumber,
+                                                @Nonnull final Project.NameKey projectKey,
+                                                @Nonnull final Collection<String> affectedFiles,
+                                                @Nonnull final Deadline deadline) {
 
         // get configuration for branch of change
         final PluginBranchSpecificSettings settings =
@@ -75,28 +164,73 @@ public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
 
         try (final ReviewDb reviewDb = schemaFactory.open()) {
             final Change change = reviewDb.changes().get(new Change.Id(changeNumber));
-            final String fullFileRef = settings.fullFileRef();
+            // projects sharing maintainers project share also its snapshot and index
+            final Optional<Project.NameKey> maintainersProject =
+                    settings.getMaintainersProject().map(Project.NameKey::new);
+            final Project.NameKey sourceProject = maintainersProject.orElse(change.getProject());
+            final String fullFileRef = maintainersProject.isPresent()
+                    ? settings.getMaintainersProjectRef()
+                    : settings.fullFileRef();
 
-            try (final Repository repository = manager.openRepository(change.getProject())) {
+            try (final Repository repository = manager.openRepository(sourceProject);
+                 final RevWalk revWalk = new RevWalk(repository)) {
 
                 final Ref ref = Optional.ofNullable(repository.findRef(fullFileRef))
                         .orElseThrow(() -> new IllegalStateException(
                                 format("Unable to get ref %s", fullFileRef)));
 
-                final RevCommit revCommit = new RevWalk(repository).parseCommit(ref.getObjectId());
-
-                final String maintainersFileContent =
-                        findMostRecentMaintainersChangeContent(settings.getLocalFilePath(), repository,
-                                new RevWalk(repository), revCommit);
+                final AtomicReference<IndexSnapshot> published = snapshots.computeIfAbsent(
+                        new IndexKey(sourceProject, fullFileRef, settings.getLocalFilePath()),
+                        key -> new AtomicReference<>());
+                final IndexSnapshot current = published.get();
 
-                if (nonNull(maintainersFileContent)) {
-                    return maintainersParser.parseMaintainers(maintainersFileContent);
+                // ref did not move since snapshot was published, therefore no need to search history again
+                final ObjectId maintainersFileId;
+                final IndexVersion version;
+                if (nonNull(current) && current.refTip.equals(ref.getObjectId())) {
+                    maintainersFileId = current.maintainersFileId;
+                    version = getIndex(repository, maintainersFileId, current.version);
                 } else {
-                    throw new IllegalStateException(
-                            format("Unable to find file %s in branch %s", settings.getLocalFilePath(),
-                                    fullFileRef));
+                    final RevCommit revCommit = revWalk.parseCommit(ref.getObjectId());
+
+                    final ObjectId tipFileId =
+                            tipFiles.getIfPresent(tipFileKey(ref.getObjectId(), settings.getLocalFilePath()));
+                    if (maintainersProject.isPresent()) {
+                        maintainersFileId = findMaintainersFileId(settings.getLocalFilePath(), repository, revCommit);
+                    } else if (nonNull(tipFileId)) {
+                        maintainersFileId = tipFileId;
+                    } else {
+                        maintainersFileId = findMostRecentMaintainersChangeId(settings.getLocalFilePath(),
+                                repository, revWalk, revCommit, deadline);
+                    }
+
+                    if (isNull(maintainersFileId)) {
+                        throw new IllegalStateException(
+                                format("Unable to find file %s in branch %s", settings.getLocalFilePath(),
+                                        fullFileRef));
+                    }
+                    // new version of file is built on top of the one currently published
+                    final IndexVersion previous = isNull(current)
+                            ? null
+                            : current.version;
+                    deadline.check("loading maintainers file");
+                    try {
+                        version = getIndex(repository, maintainersFileId, previous);
+                    } catch (InvalidMaintainersFileException e) {
+                        // ref tip is remembered together with invalid file, so history is not searched again
+                        published.set(new IndexSnapshot(ref.getObjectId(), maintainersFileId, previous));
+                        throw e;
+                    }
+                }
+
+                final MaintainersIndex index = publish(published, ref.getObjectId(), maintainersFileId, version);
+                // shards are relative to project of change, so they are not used with maintainers project
+                if (!settings.isMaintainersShards() || maintainersProject.isPresent() || affectedFiles.isEmpty()) {
+                    return index;
                 }
-            } catch (IOException | MaintainerMismatchException e) {
+                return withShards(repository, revWalk, ref, settings.getLocalFilePath(), maintainersFileId, version,
+                        affectedFiles, deadline);
+            } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
 
@@ -105,12 +239,258 @@ public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
         }
     }
 
+    /**
+     * Parses maintainers file and builds its index, so that index is ready when first change needs it
+     *
+     * @throws InvalidMaintainersFileException if file can not be parsed
+     */
+    public void precompile(@Nonnull final Project.NameKey projectKey, @Nonnull final String filePath,
+                           @Nonnull final Repository repository, @Nonnull final ObjectId maintainersFileId) {
+        // any published version of the same file is good base, unchanged blocks and accounts are reused
+        final IndexVersion previous = snapshots.entrySet().stream()
+                .filter(snapshot -> snapshot.getKey().project.equals(projectKey)
+                        && snapshot.getKey().filePath.equals(filePath))
+                .map(snapshot -> snapshot.getValue().get())
+                .filter(Objects::nonNull)
+                .map(snapshot -> snapshot.version)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        getIndex(repository, maintainersFileId, previous);
+    }
+
+    /**
+     * Publishes maintainers file changed by the tip commit of ref, so that changes evaluated against such tip use it.
+     * History is otherwise searched from parent of ref tip, so the file would be used only once another commit is
+     * merged on top of it
+     *
+     * @throws InvalidMaintainersFileException if file can not be parsed
+     */
+    public void useFileOfRefTip(@Nonnull final Project.NameKey projectKey, @Nonnull final String fullFileRef,
+                                @Nonnull final String filePath, @Nonnull final Repository repository,
+                                @Nonnull final ObjectId refTip, @Nonnull final ObjectId maintainersFileId) {
+        tipFiles.put(tipFileKey(refTip, filePath), maintainersFileId);
+
+        final AtomicReference<IndexSnapshot> published = snapshots.computeIfAbsent(
+                new IndexKey(projectKey, fullFileRef, filePath), key -> new AtomicReference<>());
+        final IndexSnapshot current = published.get();
+        final IndexVersion previous = isNull(current)
+                ? null
+                : current.version;
+        final IndexVersion version;
+        try {
+            version = getIndex(repository, maintainersFileId, previous);
+        } catch (InvalidMaintainersFileException e) {
+            published.set(new IndexSnapshot(refTip, maintainersFileId, previous));
+            throw e;
+        }
+        publish(published, refTip, maintainersFileId, version);
+    }
+
+    private IndexVersion getIndex(final Repository repository, final ObjectId maintainersFileId,
+                                  @Nullable final IndexVersion previous) {
+        final MaintainerMismatchException knownMismatch = invalidFiles.getIfPresent(maintainersFileId);
+        if (nonNull(knownMismatch)) {
+            throw new InvalidMaintainersFileException(maintainersFileId, knownMismatch);
+        }
+
+        try {
+            return indexCache.get(maintainersFileId,
+                    () -> loadMaintainersIndex(repository, maintainersFileId, previous));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MaintainerMismatchException) {
+                final MaintainerMismatchException mismatch = (MaintainerMismatchException) e.getCause();
+                LOG.error("Maintainers file {} is invalid", maintainersFileId.getName(), mismatch);
+                invalidFiles.put(maintainersFileId, mismatch);
+                throw new InvalidMaintainersFileException(maintainersFileId, mismatch);
+            }
+            throw new IllegalStateException(
+                    format("Unable to build maintainers index for %s", maintainersFileId.getName()), e.getCause());
+        } catch (UncheckedExecutionException e) {
+            // for ex. accounts of maintainers could not be resolved
+            throw new IllegalStateException(
+                    format("Unable to build maintainers index for %s", maintainersFileId.getName()), e.getCause());
+        }
+    }
+
+    // shards are loaded only for directories of affected files, so cost does not depend on number of shards
+    private MaintainersIndex withShards(final Repository repository, final RevWalk revWalk, final Ref ref,
+                                        final String rootFilePath, final ObjectId rootFileId, final IndexVersion root,
+                                        final Collection<String> affectedFiles,
+                                        final Deadline deadline) throws IOException {
+        // shards are searched in the same commit as search for root file starts at
+        final RevCommit head = revWalk.parseCommit(ref.getObjectId());
+        final RevTree tree = revWalk.parseCommit(head.getParent(0).getId()).getTree();
+        final String shardName = rootFilePath.substring(rootFilePath.lastIndexOf('/') + 1);
+
+        final SortedMap<String, ObjectId> shards = new TreeMap<>();
+        for (String directory : parentDirectories(affectedFiles)) {
+            deadline.check("searching maintainers shards");
+            final String shardPath = directory + "/" + shardName;
+            if (!shardPath.equals(rootFilePath)) {
+                findShard(repository, tree, shardPath).ifPresent(shardId -> shards.put(directory, shardId));
+            }
+        }
+
+        if (shards.isEmpty()) {
+            return root.index;
+        }
+
+        final String key = rootFileId.getName() + shards.entrySet().stream()
+                .map(shard -> ";" + shard.getKey() + ":" + shard.getValue().getName())
+                .collect(Collectors.joining());
+        try {
+            return shardedIndexCache.get(key, () -> loadShardedIndex(repository, root, shards));
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof InvalidMaintainersFileException) {
+                throw (InvalidMaintainersFileException) e.getCause();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(format("Unable to build maintainers index for shards %s", shards.keySet()),
+                    e.getCause());
+        }
+    }
+
+    private static Set<String> parentDirectories(final Collection<String> files) {
+        final Set<String> directories = new HashSet<>();
+        for (String file : files) {
+            for (int end = file.indexOf('/'); end > 0; end = file.indexOf('/', end + 1)) {
+                directories.add(file.substring(0, end));
+            }
+        }
+        return directories;
+    }
+
+    private Optional<ObjectId> findShard(final Repository repository, final RevTree tree, final String shardPath) {
+        try {
+            return shardProbeCache.get(tree.getName() + ":" + shardPath, () -> {
+                try (final TreeWalk treeWalk = TreeWalk.forPath(repository, shardPath, tree)) {
+                    return Optional.ofNullable(treeWalk).map(walk -> walk.getObjectId(0));
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(format("Unable to detect maintainers file %s", shardPath), e.getCause());
+        }
+    }
+
+    private MaintainersIndex loadShardedIndex(final Repository repository, final IndexVersion root,
+                                              final SortedMap<String, ObjectId> shards)
+            throws ExecutionException, OrmException {
+        final List<ComponentInfo> components = new ArrayList<>(root.file.getComponents());
+        for (Map.Entry<String, ObjectId> shard : shards.entrySet()) {
+            final String directory = shard.getKey();
+            final ObjectId shardId = shard.getValue();
+            final MaintainerMismatchException knownMismatch = invalidFiles.getIfPresent(shardId);
+            if (nonNull(knownMismatch)) {
+                throw new InvalidMaintainersFileException(shardId, knownMismatch);
+            }
+
+            try {
+                components.addAll(shardCache.get(directory + ":" + shardId.getName(), () -> {
+                    LOG.info("Loading maintainers file of {} from {}", directory, shardId.getName());
+                    try (final Reader content = openFile(repository, shardId)) {
+                        return maintainersParser.parse(content, null, directory);
+                    }
+                }).getComponents());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof MaintainerMismatchException) {
+                    invalidFiles.put(shardId, (MaintainerMismatchException) e.getCause());
+                    throw new InvalidMaintainersFileException(shardId, (MaintainerMismatchException) e.getCause());
+                }
+                throw e;
+            }
+        }
+
+        try (final ReviewDb reviewDb = schemaFactory.open()) {
+            return new MaintainersIndex(components, maintainer -> resolveAccount(reviewDb, maintainer), root.index);
+        }
+    }
+
+    // swaps in new version of index, readers that already obtained previous one can finish with it safely
+    private static MaintainersIndex publish(final AtomicReference<IndexSnapshot> published,
+                                            final ObjectId refTip,
+                                            final ObjectId maintainersFileId,
+                                            final IndexVersion version) {
+        final IndexSnapshot current = published.get();
+        if (isNull(current) || current.version != version || !current.refTip.equals(refTip)) {
+            published.set(new IndexSnapshot(refTip, maintainersFileId, version));
+        }
+        return version.index;
+    }
+
+    // unchanged blocks and already resolved accounts are taken over from previous version
+    private IndexVersion loadMaintainersIndex(final Repository repository, final ObjectId maintainersFileId,
+                                              @Nullable final IndexVersion previous)
+            throws IOException, MaintainerMismatchException, OrmException {
+        LOG.info("Building maintainers index for {}", maintainersFileId.getName());
+        final MaintainersFile maintainersFile;
+        try (final Reader content = openFile(repository, maintainersFileId)) {
+            maintainersFile = maintainersParser.parse(content, isNull(previous)
+                    ? null
+                    : previous.file, "");
+        }
+        LOG.info("Reused {} out of {} blocks of maintainers file", maintainersFile.getReusedBlocks(),
+                maintainersFile.getComponents().size());
+
+        try (final ReviewDb reviewDb = schemaFactory.open()) {
+            return new IndexVersion(maintainersFile, new MaintainersIndex(maintainersFile.getComponents(),
+                    maintainer -> resolveAccount(reviewDb, maintainer),
+                    isNull(previous)
+                            ? null
+                            : previous.index));
+        }
+    }
+
+    // blob is decoded while being parsed, so whole file is never loaded in memory
+    private static Reader openFile(final Repository repository, final ObjectId fileId) throws IOException {
+        return new InputStreamReader(repository.open(fileId).openStream(), StandardCharsets.UTF_8);
+    }
+
+    // maintainers are matched to accounts by their full name, preferred email is used as fallback
+    private Optional<Account.Id> resolveAccount(final ReviewDb reviewDb, final Maintainer maintainer) {
+        try {
+            final Optional<Account.Id> byFullName = firstAccount(reviewDb.accounts().byFullName(maintainer.getName()));
+            if (byFullName.isPresent()) {
+                return byFullName;
+            }
+
+            final Optional<Account.Id> byEmail =
+                    firstAccount(reviewDb.accounts().byPreferredEmail(maintainer.getEmail()));
+            if (!byEmail.isPresent()) {
+                LOG.warn("Unable to find account for maintainer {}", maintainer);
+            }
+            return byEmail;
+        } catch (OrmException e) {
+            throw new IllegalStateException(format("Unable to resolve account for maintainer %s", maintainer), e);
+        }
+    }
+
+    private static Optional<Account.Id> firstAccount(final ResultSet<Account> accounts) {
+        return accounts.toList().stream()
+                .map(Account::getId)
+                .findFirst();
+    }
+
+    // maintainers project is not changed by reviewed change, so its head commit is used
+    private static ObjectId findMaintainersFileId(final String maintainersFileName,
+                                                  final Repository repository,
+                                                  final RevCommit headCommit) throws IOException {
+        try (final TreeWalk treeWalk = TreeWalk.forPath(repository, maintainersFileName, headCommit.getTree())) {
+            return isNull(treeWalk)
+                    ? null
+                    : treeWalk.getObjectId(0);
+        }
+    }
+
     // skips head commit
-    private String findMostRecentMaintainersChangeContent(
+    private ObjectId findMostRecentMaintainersChangeId(
             final String maintainersFileName,
             final Repository repository,
             final RevWalk revWalk,
-            final RevCommit headCommit) {
+            final RevCommit headCommit,
+            final Deadline deadline) {
+        deadline.check("searching history of maintainers file");
         LOG.info("Starting search at {}", headCommit);
 
         final RevCommit parent = getRevCommit(revWalk, headCommit.getParent(0).getId());
@@ -127,22 +507,14 @@ public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
 
             if (treeWalk.next()) {
                 LOG.info("Maintainers file found in commit {}", parent.getId());
-                ObjectId objectId = treeWalk.getObjectId(0);
-                ObjectLoader loader = repository.open(objectId);
-
-                // and then one can the loader to read the file
-                try (final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                    loader.copyTo(out);
-                    revWalk.dispose();
-                    return new String(out.toByteArray());
-                }
+                return treeWalk.getObjectId(0);
             }
 
             LOG.info("Maintainers file not found in commit {}, going deep", parent.getId());
             if (parent.getParents() == null) {
                 throw new IllegalStateException(format("Root of branch reached with commit %s", parent));
             }
-            return findMostRecentMaintainersChangeContent(maintainersFileName, repository, revWalk, parent);
+            return findMostRecentMaintainersChangeId(maintainersFileName, repository, revWalk, parent, deadline);
         } catch (IOException e) {
             throw new IllegalStateException(format("Unable to detect maintainers file in %s", parent.getId()));
         }
@@ -155,4 +527,59 @@ public class MaintainersProvider implements ClosestMatch, PatchListProcessing {
             throw new IllegalStateException(format("Unable to parse commit %s", id));
         }
     }
+
+    private static final class IndexKey {
+        private final Project.NameKey project;
+        private final String fileRef;
+        private final String filePath;
+
+        private IndexKey(final Project.NameKey project, final String fileRef, final String filePath) {
+            this.project = project;
+            this.fileRef = fileRef;
+            this.filePath = filePath;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final IndexKey that = (IndexKey) o;
+            return Objects.equals(project, that.project)
+                    && Objects.equals(fileRef, that.fileRef)
+                    && Objects.equals(filePath, that.filePath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(project, fileRef, filePath);
+        }
+    }
+
+    private static final class IndexSnapshot {
+        private final ObjectId refTip;
+        private final ObjectId maintainersFileId;
+        private final IndexVersion version;
+
+        private IndexSnapshot(final ObjectId refTip, final ObjectId maintainersFileId, final IndexVersion version) {
+            this.refTip = refTip;
+            this.maintainersFileId = maintainersFileId;
+            this.version = version;
+        }
+    }
+
+    // index together with parsed file it was built from
+    private static final class IndexVersion {
+        private final MaintainersFile file;
+        private final MaintainersIndex index;
+
+        private IndexVersion(final MaintainersFile file, final MaintainersIndex index) {
+            this.file = file;
+            this.index = index;
+        }
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static io.fd.maintainer.plugin.service.SettingsProvider.MAINTAINER_PLUGIN;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.patch.PatchListCache;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.query.change.InternalChangeQuery;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gwtorm.server.OrmException;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import io.fd.maintainer.plugin.service.push.ReviewerPusher;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.PatchListProcessing;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Re-evaluates open changes of branch against current maintainers file, so that changes created before maintainers
+ * file was updated get reviewers of their new components, and get approved once their verifications already cover
+ * all their components. Changes are processed in parallel on pool dedicated to plugin, changes that have all relevant
+ * reviewers already get no reviewers
+ */
+@Singleton
+public class OpenChangesReevaluator implements LifecycleListener, PatchListProcessing {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenChangesReevaluator.class);
+
+    private static final String REEVALUATION_THREADS = "reevaluationthreads";
+    private static final int DEFAULT_REEVALUATION_THREADS = 2;
+    private static final String QUEUE_NAME = "maintainer-reevaluation";
+
+    @Inject
+    private WorkQueue workQueue;
+
+    @Inject
+    private PluginConfigFactory cfg;
+
+    @Inject
+    private OneOffRequestContext requestContext;
+
+    @Inject
+    private Provider<InternalChangeQuery> queryProvider;
+
+    @Inject
+    private SettingsProvider settingsProvider;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    @Inject
+    private PatchListCache patchListCache;
+
+    @Inject
+    private ReviewerPusher reviewerPusher;
+
+    @Inject
+    private PatchsetApprovalEvaluator approvalEvaluator;
+
+    @Inject
+    private ChangeLocks changeLocks;
+
+    private volatile WorkQueue.Executor executor;
+
+    /**
+     * Schedules re-evaluation of all open changes of branch, returns immediately
+     */
+    public void reevaluate(@Nonnull final Branch.NameKey branch) {
+        final WorkQueue.Executor current = executor;
+        if (current == null) {
+            throw new IllegalStateException("Re-evaluation is not running");
+        }
+        current.submit(() -> reevaluateBranch(current, branch));
+    }
+
+    private void reevaluateBranch(final WorkQueue.Executor current, final Branch.NameKey branch) {
+        final PluginBranchSpecificSettings settings =
+                settingsProvider.getBranchSpecificSettings(branch.get(), branch.getParentKey());
+        if (!settings.isAutoAddReviewers() && !settings.isAllowMaintainersSubmit()) {
+            LOG.info("Auto add reviewers and maintainers submit turned off for {}, skipping re-evaluation", branch);
+            return;
+        }
+
+        final List<ChangeData> openChanges;
+        try (final ManualRequestContext ignored = requestContext.open()) {
+            openChanges = queryProvider.get().byBranchOpen(branch);
+        } catch (OrmException e) {
+            LOG.error("Unable to find open changes of {}", branch, e);
+            return;
+        }
+        LOG.info("Re-evaluating {} open changes of {}", openChanges.size(), branch);
+
+        // changes are not waited for, so that pool is not blocked by this task
+        final AtomicInteger remaining = new AtomicInteger(openChanges.size());
+        final AtomicInteger updated = new AtomicInteger();
+        for (ChangeData changeData : openChanges) {
+            final Change.Id changeId = changeData.getId();
+            current.submit(() -> {
+                final Lock changeLock = changeLocks.forChange(changeId);
+                changeLock.lock();
+                try {
+                    if (reevaluateChange(changeId, branch, settings)) {
+                        updated.incrementAndGet();
+                    }
+                } catch (RuntimeException | OrmException e) {
+                    LOG.error("Unable to re-evaluate change {}", changeId, e);
+                } finally {
+                    changeLock.unlock();
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    LOG.info("Re-evaluation of {} finished, reviewers added to {} of {} changes", branch,
+                            updated.get(), openChanges.size());
+                }
+            });
+        }
+    }
+
+    private boolean reevaluateChange(final Change.Id changeId, final Branch.NameKey branch,
+                                     final PluginBranchSpecificSettings settings) throws OrmException {
+        final Deadline deadline = Deadline.after(settings.getEventTimeoutSeconds(), TimeUnit.SECONDS);
+        try (final ManualRequestContext ignored = requestContext.open()) {
+            // change may be already merged or updated since query
+            final List<ChangeData> found = queryProvider.get().byLegacyChangeId(changeId);
+            if (found.isEmpty() || !found.get(0).change().getStatus().isOpen()) {
+                return false;
+            }
+            final ChangeData changeData = found.get(0);
+            final Change change = changeData.change();
+            final PatchSet patchSet = changeData.currentPatchSet();
+
+            final MaintainersIndex index = maintainersProvider.getMaintainersIndex(branch.get(), changeId.get(),
+                    branch.getParentKey(), getAffectedFileNames(getRelevantPatchListEntries(
+                            getPatchList(patchListCache, change, patchSet), settings.getIgnoredPaths())), deadline);
+            final int added = settings.isAutoAddReviewers()
+                    ? reviewerPusher.addMissingReviewers(index, change, patchSet, changeData.reviewers().all(),
+                    settings, deadline)
+                    : 0;
+            if (added > 0) {
+                LOG.info("{} reviewers added to change {}", added, changeId);
+            }
+            // verifications given before update may now cover all components of change
+            if (settings.isAllowMaintainersSubmit()) {
+                approvalEvaluator.evaluate(changeId, null, settings, deadline);
+            }
+            return added > 0;
+        }
+    }
+
+    @Override
+    public void start() {
+        executor = workQueue.createQueue(Math.max(1, cfg.getFromGerritConfig(MAINTAINER_PLUGIN)
+                .getInt(REEVALUATION_THREADS, DEFAULT_REEVALUATION_THREADS)), QUEUE_NAME);
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import static io.fd.maintainer.plugin.service.SettingsProvider.MAINTAINER_PLUGIN;
+import static java.lang.String.format;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Matches files of patchset against components. Patchsets with large number of files are matched in parallel on pool
+ * dedicated to plugin, so that gerrit's common pool is not affected
+ */
+@Singleton
+public class PatchListMatcher implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PatchListMatcher.class);
+
+    private static final String MATCHING_THREADS = "matchingthreads";
+    private static final String THREAD_NAME_PREFIX = "maintainer-matcher-";
+
+    private final int parallelism;
+    private volatile ForkJoinPool pool;
+
+    @Inject
+    PatchListMatcher(final PluginConfigFactory cfg) {
+        this(cfg.getFromGerritConfig(MAINTAINER_PLUGIN)
+                .getInt(MATCHING_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @VisibleForTesting
+    PatchListMatcher(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    private static ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(THREAD_NAME_PREFIX + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * Applies matcher to all items. If there is at least threshold items, they are split across dedicated pool.
+     * Order of results always corresponds to order of items
+     */
+    public <T, R> List<R> match(@Nonnull final List<T> items,
+                                @Nonnull final Function<T, R> matcher,
+                                final int threshold) {
+        return match(items, matcher, threshold, Deadline.NONE);
+    }
+
+    /**
+     * Applies matcher to all items, deadline is checked before each item
+     *
+     * @throws DeadlineExceededException if deadline expires before all items are matched
+     */
+    public <T, R> List<R> match(@Nonnull final List<T> items,
+                                @Nonnull final Function<T, R> itemMatcher,
+                                final int threshold,
+                                @Nonnull final Deadline deadline) {
+        final Function<T, R> matcher = item -> {
+            deadline.check("matching");
+            return itemMatcher.apply(item);
+        };
+        if (items.size() < threshold || parallelism == 1) {
+            return items.stream().map(matcher).collect(Collectors.toList());
+        }
+
+        LOG.info("Matching {} items in parallel", items.size());
+        try {
+            // parallel stream submitted from within pool is executed by that pool
+            return getPool().submit(() -> items.parallelStream().map(matcher).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(format("Matching of %s items interrupted", items.size()), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                throw (DeadlineExceededException) e.getCause();
+            }
+            throw new IllegalStateException(format("Unable to match %s items", items.size()), e.getCause());
+        }
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(parallelism, PatchListMatcher::newThread, null, false);
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public void start() {
+        // pool is created lazily, as most of the patchsets never reach threshold
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+}
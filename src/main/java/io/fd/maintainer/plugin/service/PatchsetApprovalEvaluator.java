@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service;
+
+import static io.fd.maintainer.plugin.service.PatchsetReviewInfo.ReviewState.ALL_COMPONENTS_REVIEWED;
+import static io.fd.maintainer.plugin.service.PatchsetReviewInfo.ReviewState.COMMITTER_ATTENTION_NEEDED;
+
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.PatchSetApproval;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.account.AccountCache;
+import com.google.gerrit.server.account.AccountState;
+import com.google.gerrit.server.patch.PatchList;
+import com.google.gerrit.server.patch.PatchListCache;
+import com.google.gwtorm.server.OrmException;
+import com.google.gwtorm.server.SchemaFactory;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import io.fd.maintainer.plugin.service.push.ApprovalPusher;
+import io.fd.maintainer.plugin.service.push.SubmitPusher;
+import io.fd.maintainer.plugin.service.push.WarningPusher;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.PatchListProcessing;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Approves current patchset of change once it is verified by maintainers of all its components, and submits it if
+ * configured. Used both when patchset is verified and when maintainers file of its branch changes
+ */
+@Singleton
+public class PatchsetApprovalEvaluator implements PatchListProcessing {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PatchsetApprovalEvaluator.class);
+
+    @Inject
+    private SchemaFactory<ReviewDb> schemaFactory;
+
+    @Inject
+    private MaintainersProvider maintainersProvider;
+
+    @Inject
+    private PatchListCache patchListCache;
+
+    @Inject
+    private PatchListMatcher patchListMatcher;
+
+    @Inject
+    private ApprovalPusher approvalPusher;
+
+    @Inject
+    private SubmitPusher submitPusher;
+
+    @Inject
+    private WarningPusher warningPusher;
+
+    @Inject
+    private ProcessingMetrics processingMetrics;
+
+    @Inject
+    private AccountCache accountCache;
+
+    /**
+     * Evaluates current patchset of change. Evaluations of the same change must be serialized by caller, so that each
+     * one sees approvals of previous one
+     *
+     * @param patchsetNr number of patchset evaluation was requested for, nothing is done once it is not current
+     *                   anymore. If null, current patchset is evaluated
+     */
+    public void evaluate(@Nonnull final Change.Id changeId, @Nullable final Integer patchsetNr,
+                         @Nonnull final PluginBranchSpecificSettings settings, @Nonnull final Deadline deadline) {
+        try (final ReviewDb reviewDb = schemaFactory.open()) {
+            final Change change = reviewDb.changes().get(changeId);
+
+            final PatchSet currentPatchset = reviewDb.patchSets().get(change.currentPatchSetId());
+            final PatchSet.Id currentPatchsetId = currentPatchset.getId();
+
+            final int currentPatchsetNr = currentPatchset.getPatchSetId();
+
+            // to filter out reviews on older patchsets
+            if (patchsetNr != null && currentPatchsetNr != patchsetNr) {
+                LOG.warn("Event for older patchset {}, most current {}, ignoring", patchsetNr, currentPatchsetNr);
+            } else {
+                final List<PatchSetApproval> approvals = reviewDb.patchSetApprovals().byChange(changeId).toList();
+                final List<PatchSetApproval> currentPatchsetVerifications =
+                        getPatchListCurrentVerifications(approvals, currentPatchsetId);
+
+                if (currentPatchsetVerifications.isEmpty()) {
+                    LOG.warn("No verifications found for patchset {}", currentPatchset.getId());
+                } else {
+                    try {
+                        final boolean alreadyApproved = isApprovedByPlugin(approvals, currentPatchsetId, settings);
+                        approveIfReviewed(change, currentPatchset, currentPatchsetVerifications, alreadyApproved,
+                                settings, deadline);
+                    } catch (InvalidMaintainersFileException e) {
+                        LOG.warn("Unable to process change {}, maintainers file is invalid", change.getId());
+                        warningPusher.sendInvalidMaintainersFileWarning(e, change, currentPatchset, settings);
+                    } catch (DeadlineExceededException e) {
+                        LOG.warn("Processing of change {} stopped: {}", change.getId(), e.getMessage());
+                        processingMetrics.recordTimeout();
+                        warningPusher.sendProcessingTimeoutWarning(e, change, currentPatchset, settings);
+                    }
+                }
+            }
+        } catch (OrmException e) {
+            LOG.error("Error accessing review DB", e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isApprovedByPlugin(final List<PatchSetApproval> approvals, final PatchSet.Id currentPatchsetId,
+                                       final PluginBranchSpecificSettings settings) {
+        final AccountState pluginUser = accountCache.getByUsername(settings.getPluginUserName());
+        return pluginUser != null
+                && isApprovedBy(approvals, currentPatchsetId, pluginUser.getAccount().getId());
+    }
+
+    private void approveIfReviewed(final Change change, final PatchSet currentPatchset,
+                                   final List<PatchSetApproval> currentPatchsetVerifications,
+                                   final boolean alreadyApproved,
+                                   final PluginBranchSpecificSettings settings, final Deadline deadline) {
+        LOG.info("Getting current patch list for patchset {}", currentPatchset.getId());
+        final PatchList patchList = getPatchList(patchListCache, change, currentPatchset);
+
+        LOG.info("Building maintainers index for patchset {}", currentPatchset.getId());
+        final MaintainersIndex maintainersIndex = maintainersProvider
+                .getMaintainersIndex(change.getDest().get(), change.getId().get(), change.getProject(),
+                        getAffectedFileNames(getRelevantPatchListEntries(patchList, settings.getIgnoredPaths())),
+                        deadline);
+
+        LOG.info("Getting current reviewers for patchset {}", currentPatchset.getId());
+        // accounts of maintainers are already resolved by index, no need to load them
+        final Set<Account.Id> currentVerificators = currentPatchsetVerifications
+                .stream()
+                .map(PatchSetApproval::getAccountId)
+                .collect(Collectors.toSet());
+
+        LOG.info("Getting patch review info for patchset {}", currentPatchset.getId());
+        // Note that you only need one MAINTAINER per component.
+        // Also note a single reviewer may be a MAINTAINER for multiple components
+        final PatchsetReviewInfo patchsetReviewInfo =
+                new PatchsetReviewInfo(maintainersIndex, patchList, currentVerificators,
+                        patchListMatcher, settings, deadline);
+
+        if (patchsetReviewInfo.getReviewState() == ALL_COMPONENTS_REVIEWED) {
+            LOG.info("All relevant component reviewers verified patchset {}", currentPatchset.getId());
+            // each further +1 would otherwise post another +2 with message and notification
+            if (alreadyApproved) {
+                LOG.info("Patchset {} already approved by {}", currentPatchset.getId(), settings.getPluginUserName());
+            } else {
+                deadline.check("approving patchset");
+                approvalPusher.approvePatchset(change, currentPatchset, settings.getPluginUserName());
+            }
+
+            if (settings.isAutoSubmit()) {
+                LOG.info("Submitting change {}", change.getId());
+                if (!submitPusher.submitPatch(change, settings.getPluginUserName(),
+                        settings.getSubmitBatchWindowSeconds())) {
+                    LOG.info("Change {} not submitted yet", change.getId());
+                }
+            } else {
+                LOG.warn("Auto submit turned off");
+            }
+        } else if (patchsetReviewInfo.getReviewState() == COMMITTER_ATTENTION_NEEDED) {
+            LOG.info("Patchset {} affects no configured components, committers attention needed",
+                    currentPatchset.getId());
+        } else {
+            LOG.info(
+                    "Patchset {} does not have verifications from following components yet : {}",
+                    currentPatchset.getId(), patchsetReviewInfo.getMissingComponentReview());
+        }
+    }
+}
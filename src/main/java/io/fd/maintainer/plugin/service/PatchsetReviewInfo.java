@@ -21,6 +21,7 @@ import static io.fd.maintainer.plugin.service.PatchsetReviewInfo.ReviewState.COM
 import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.server.patch.PatchList;
 import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.MaintainersIndex;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
 import java.util.Collection;
@@ -37,10 +38,13 @@ public class PatchsetReviewInfo implements PatchListProcessing {
 
     public PatchsetReviewInfo(@Nonnull final MaintainersIndex index,
                               @Nonnull final PatchList patchList,
-                              @Nonnull final Set<Account> currentVerificationAuthors) {
-        final Set<String> componentsForPatchlist = getRelevantPatchListEntries(patchList)
-                .stream()
-                .map(patchListEntry -> {
+                              @Nonnull final Set<Account.Id> currentVerificationAuthors,
+                              @Nonnull final PatchListMatcher matcher,
+                              @Nonnull final PluginBranchSpecificSettings settings,
+                              @Nonnull final Deadline deadline) {
+        final Set<String> componentsForPatchlist = matcher.match(
+                getRelevantPatchListEntries(patchList, settings.getIgnoredPaths()),
+                patchListEntry -> {
                     final Tuple2<Set<ComponentPath>, Set<ComponentPath>> componentTuple =
                             index.getComponentPathsForEntry(patchListEntry);
                     if (getRelevantChangeName(patchListEntry).equals(patchListEntry.getOldName())) {
@@ -48,7 +52,8 @@ public class PatchsetReviewInfo implements PatchListProcessing {
                     } else {
                         return componentTuple.b;
                     }
-                })
+                }, settings.getParallelMatchingThreshold(), deadline)
+                .stream()
                 .flatMap(Collection::stream)
                 .map(index::getComponentForPath)
                 .filter(index::isReviewComponent)
@@ -61,10 +66,7 @@ public class PatchsetReviewInfo implements PatchListProcessing {
             return;
         }
 
-        final Set<String> componentsCurrentlyReviewed = currentVerificationAuthors.stream()
-                .map(account -> index.getComponentsForMaintainer(account.getFullName()))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
+        final Set<String> componentsCurrentlyReviewed = index.getComponentsForAccounts(currentVerificationAuthors);
 
         if (componentsCurrentlyReviewed.containsAll(componentsForPatchlist)) {
             reviewState = ReviewState.ALL_COMPONENTS_REVIEWED;
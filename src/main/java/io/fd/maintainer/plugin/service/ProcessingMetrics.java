@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.service;
+
+import com.google.gerrit.metrics.Counter0;
+import com.google.gerrit.metrics.Description;
+import com.google.gerrit.metrics.MetricMaker;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Metrics of event processing, reported under plugins/maintainer-plugin/
+ */
+@Singleton
+public class ProcessingMetrics {
+
+    private final Counter0 timeouts;
+
+    @Inject
+    ProcessingMetrics(final MetricMaker metricMaker) {
+        timeouts = metricMaker.newCounter("events/timeouts",
+                new Description("Events whose processing exceeded time budget").setRate().setUnit("events"));
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+}
@@ -17,6 +17,9 @@
 package io.fd.maintainer.plugin.service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.gerrit.reviewdb.client.Project;
 import com.google.gerrit.reviewdb.client.RefNames;
 import com.google.gerrit.server.config.PluginConfigFactory;
@@ -25,12 +28,20 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.ClosestMatch;
+import io.fd.maintainer.plugin.util.IgnoredPaths;
 import org.eclipse.jgit.lib.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -41,7 +52,7 @@ public final class SettingsProvider implements ClosestMatch {
 
     private static final Logger LOG = LoggerFactory.getLogger(SettingsProvider.class);
 
-    private static final String MAINTAINER_PLUGIN = "maintainer";
+    public static final String MAINTAINER_PLUGIN = "maintainer";
     private static final String BRANCH_SECTION = "branch";
 
     private static final String PLUGIN_USER = "pluginuser";
@@ -65,6 +76,33 @@ public final class SettingsProvider implements ClosestMatch {
     private static final String DISLIKE_WARNINGS = "dislikewarnings";
     private static final boolean DEFAULT_DISLIKE_WARNINGS = false;
 
+    private static final String PARALLEL_MATCHING_THRESHOLD = "parallelmatchingthreshold";
+    private static final int DEFAULT_PARALLEL_MATCHING_THRESHOLD = 10000;
+
+    private static final String MAINTAINERS_SHARDS = "maintainersshards";
+    private static final boolean DEFAULT_MAINTAINERS_SHARDS = false;
+
+    private static final String MAINTAINERS_PROJECT = "maintainersproject";
+    private static final String MAINTAINERS_PROJECT_REF = "maintainersprojectref";
+    private static final String DEFAULT_MAINTAINERS_PROJECT_REF = "master";
+
+    private static final String VALIDATE_MAINTAINERS_FILE = "validatemaintainersfile";
+    private static final boolean DEFAULT_VALIDATE_MAINTAINERS_FILE = true;
+
+    private static final String EVENT_TIMEOUT = "eventtimeout";
+    private static final int DEFAULT_EVENT_TIMEOUT_SECONDS = 120;
+
+    private static final String SUBMIT_BATCH_WINDOW = "submitbatchwindow";
+    private static final int DEFAULT_SUBMIT_BATCH_WINDOW_SECONDS = 0;
+
+    private static final String IGNORE_PATHS = "ignorepaths";
+    private static final long IGNORED_PATHS_CACHE_SIZE = 64;
+
+    // settings are read for each event, so patterns are compiled only when they change
+    private final Cache<List<String>, IgnoredPaths> ignoredPathsCache = CacheBuilder.newBuilder()
+            .maximumSize(IGNORED_PATHS_CACHE_SIZE)
+            .build();
+
     @Inject
     private PluginConfigFactory cfg;
 
@@ -73,6 +111,43 @@ public final class SettingsProvider implements ClosestMatch {
         this.cfg = cfg;
     }
 
+    /**
+     * Returns all paths of maintainers file configured for any branch of project, including default one. Only config
+     * of project is read, so it is cheap enough to be called for each update of branch
+     */
+    public Set<String> getMaintainersFilePaths(@Nonnull final Project.NameKey projectKey) {
+        final Config config = projectSpecificPluginConfig(projectKey);
+        final Set<String> paths = new HashSet<>();
+        paths.add(DEFAULT_MAINTAINERS_FILE_REF);
+        for (String branch : config.getSubsections(BRANCH_SECTION)) {
+            Optional.ofNullable(config.getString(BRANCH_SECTION, branch, MAINTAINERS_FILE_REF)).ifPresent(paths::add);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns settings of branches that read maintainers file from given ref, by name of branch. Branches using
+     * maintainers project and branches whose settings can not be read are left out
+     */
+    public Map<String, PluginBranchSpecificSettings> getReadersOfFileRef(@Nonnull final Collection<String> branchNames,
+                                                                        @Nonnull final Project.NameKey projectKey,
+                                                                        @Nonnull final String fileRef) {
+        final Map<String, PluginBranchSpecificSettings> readers = new LinkedHashMap<>();
+        for (String branchName : branchNames) {
+            final PluginBranchSpecificSettings settings;
+            try {
+                settings = getBranchSpecificSettings(branchName, projectKey);
+            } catch (IllegalStateException e) {
+                LOG.warn("Unable to read settings for {}", branchName, e);
+                continue;
+            }
+            if (!settings.getMaintainersProject().isPresent() && fileRef.equals(settings.fullFileRef())) {
+                readers.put(branchName, settings);
+            }
+        }
+        return readers;
+    }
+
     public PluginBranchSpecificSettings getBranchSpecificSettings(@Nonnull final String branchName,
                                                                   @Nonnull final Project.NameKey projectKey) {
 
@@ -94,6 +169,12 @@ public final class SettingsProvider implements ClosestMatch {
                 .setAutoAddReviewers(DEFAULT_AUTO_ADD_REVIEWERS)
                 .setAutoSubmit(DEFAULT_AUTO_SUBMIT)
                 .setDislikeWarnings(DEFAULT_DISLIKE_WARNINGS)
+                .setParallelMatchingThreshold(DEFAULT_PARALLEL_MATCHING_THRESHOLD)
+                .setMaintainersShards(DEFAULT_MAINTAINERS_SHARDS)
+                .setMaintainersProjectRef(DEFAULT_MAINTAINERS_PROJECT_REF)
+                .setValidateMaintainersFile(DEFAULT_VALIDATE_MAINTAINERS_FILE)
+                .setEventTimeoutSeconds(DEFAULT_EVENT_TIMEOUT_SECONDS)
+                .setSubmitBatchWindowSeconds(DEFAULT_SUBMIT_BATCH_WINDOW_SECONDS)
                 .setBranch(fullBranchName)
                 .setFileRef(DEFAULT_MAINTAINERS_FILE_REF)
                 .setLocalFilePath(DEFAULT_MAINTAINERS_FILE_PATH_REF)
@@ -111,6 +192,19 @@ public final class SettingsProvider implements ClosestMatch {
                 .setAutoAddReviewers(autoAddReviewersOrDefault(branchName, closestBranch, projectKey))
                 .setAutoSubmit(autoSubmitOrDefault(branchName, closestBranch, projectKey))
                 .setDislikeWarnings(dislikeWarningsOrDefault(branchName, closestBranch, projectKey))
+                .setParallelMatchingThreshold(parallelMatchingThresholdOrDefault(branchName, closestBranch, projectKey))
+                .setIgnoredPaths(ignoredPathsOrDefault(branchName, closestBranch, projectKey))
+                .setMaintainersShards(maintainersShardsOrDefault(branchName, closestBranch, projectKey))
+                .setMaintainersProject(getKey(projectKey, branchName, closestBranch, MAINTAINERS_PROJECT, null,
+                        String::valueOf))
+                .setMaintainersProjectRef(getKey(projectKey, branchName, closestBranch, MAINTAINERS_PROJECT_REF,
+                        DEFAULT_MAINTAINERS_PROJECT_REF, String::valueOf))
+                .setValidateMaintainersFile(getKey(projectKey, branchName, closestBranch, VALIDATE_MAINTAINERS_FILE,
+                        DEFAULT_VALIDATE_MAINTAINERS_FILE, Boolean::valueOf))
+                .setEventTimeoutSeconds(getKey(projectKey, branchName, closestBranch, EVENT_TIMEOUT,
+                        DEFAULT_EVENT_TIMEOUT_SECONDS, Integer::valueOf))
+                .setSubmitBatchWindowSeconds(getKey(projectKey, branchName, closestBranch, SUBMIT_BATCH_WINDOW,
+                        DEFAULT_SUBMIT_BATCH_WINDOW_SECONDS, Integer::valueOf))
                 .setBranch(projectSpecificPluginConfig(projectKey).getSubsections(BRANCH_SECTION)
                         .stream()
                         .filter(subSection -> subSection.equals(branchName))
@@ -140,6 +234,37 @@ public final class SettingsProvider implements ClosestMatch {
         return getKey(projectKey, branch, closesBranch, DISLIKE_WARNINGS, DEFAULT_DISLIKE_WARNINGS, Boolean::valueOf);
     }
 
+    private Integer parallelMatchingThresholdOrDefault(final String branch, final String closesBranch,
+                                                       final Project.NameKey projectKey) {
+        return getKey(projectKey, branch, closesBranch, PARALLEL_MATCHING_THRESHOLD,
+                DEFAULT_PARALLEL_MATCHING_THRESHOLD, Integer::valueOf);
+    }
+
+    private Boolean maintainersShardsOrDefault(final String branch, final String closesBranch,
+                                               final Project.NameKey projectKey) {
+        return getKey(projectKey, branch, closesBranch, MAINTAINERS_SHARDS, DEFAULT_MAINTAINERS_SHARDS,
+                Boolean::valueOf);
+    }
+
+    private IgnoredPaths ignoredPathsOrDefault(final String branch, final String closesBranch,
+                                               final Project.NameKey projectKey) {
+        final Config config = projectSpecificPluginConfig(projectKey);
+        String[] patterns = config.getStringList(BRANCH_SECTION, branch, IGNORE_PATHS);
+        if (patterns.length == 0) {
+            patterns = config.getStringList(BRANCH_SECTION, closesBranch, IGNORE_PATHS);
+        }
+        if (patterns.length == 0) {
+            return IgnoredPaths.NONE;
+        }
+
+        final List<String> key = ImmutableList.copyOf(patterns);
+        try {
+            return ignoredPathsCache.get(key, () -> new IgnoredPaths(key));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(format("Unable to compile ignored paths %s", key), e.getCause());
+        }
+    }
+
     private String fileNameRefOrDefault(final String branch, final String closesBranch,
                                         final Project.NameKey projectKey) {
         return getKey(projectKey, branch, closesBranch, MAINTAINERS_FILE_REF, DEFAULT_MAINTAINERS_FILE_REF,
@@ -157,7 +282,7 @@ public final class SettingsProvider implements ClosestMatch {
                                      final Project.NameKey projectKey) {
         final Config config = projectSpecificPluginConfig(projectKey);
         return Optional.ofNullable(config.getString(BRANCH_SECTION, branch, PLUGIN_USER))
-                .orElse(Optional.ofNullable(config.getString(BRANCH_SECTION, alternativeBranch, PLUGIN_USER))
+                .orElseGet(() -> Optional.ofNullable(config.getString(BRANCH_SECTION, alternativeBranch, PLUGIN_USER))
                         .orElseThrow(() -> {
                             LOG.error("Plugin user not specified for branch {}", branch);
                             return new IllegalStateException(format("Plugin user not specified for branch %s", branch));
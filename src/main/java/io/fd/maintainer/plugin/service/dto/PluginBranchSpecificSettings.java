@@ -17,6 +17,8 @@
 package io.fd.maintainer.plugin.service.dto;
 
 import com.google.gerrit.reviewdb.client.RefNames;
+import io.fd.maintainer.plugin.util.IgnoredPaths;
+import java.util.Optional;
 
 public class PluginBranchSpecificSettings {
 
@@ -29,6 +31,14 @@ public class PluginBranchSpecificSettings {
     private final boolean autoAddReviewers;
     private final boolean autoSubmit;
     private final boolean dislikeWarnings;
+    private final int parallelMatchingThreshold;
+    private final IgnoredPaths ignoredPaths;
+    private final boolean maintainersShards;
+    private final String maintainersProject;
+    private final String maintainersProjectRef;
+    private final boolean validateMaintainersFile;
+    private final int eventTimeoutSeconds;
+    private final int submitBatchWindowSeconds;
 
     private PluginBranchSpecificSettings(final String pluginUserName,
                                          final String branch,
@@ -38,7 +48,15 @@ public class PluginBranchSpecificSettings {
                                          final boolean allowMaintainersSubmit,
                                          final boolean autoAddReviewers,
                                          final boolean autoSubmit,
-                                         final boolean dislikeWarnings) {
+                                         final boolean dislikeWarnings,
+                                         final int parallelMatchingThreshold,
+                                         final IgnoredPaths ignoredPaths,
+                                         final boolean maintainersShards,
+                                         final String maintainersProject,
+                                         final String maintainersProjectRef,
+                                         final boolean validateMaintainersFile,
+                                         final int eventTimeoutSeconds,
+                                         final int submitBatchWindowSeconds) {
         this.pluginUserName = pluginUserName;
         this.branch = branch;
         this.wildcardBranch = wildcardBranch;
@@ -48,6 +66,14 @@ public class PluginBranchSpecificSettings {
         this.autoAddReviewers = autoAddReviewers;
         this.autoSubmit = autoSubmit;
         this.dislikeWarnings = dislikeWarnings;
+        this.parallelMatchingThreshold = parallelMatchingThreshold;
+        this.ignoredPaths = ignoredPaths;
+        this.maintainersShards = maintainersShards;
+        this.maintainersProject = maintainersProject;
+        this.maintainersProjectRef = maintainersProjectRef;
+        this.validateMaintainersFile = validateMaintainersFile;
+        this.eventTimeoutSeconds = eventTimeoutSeconds;
+        this.submitBatchWindowSeconds = submitBatchWindowSeconds;
     }
 
     public String getLocalFilePath() {
@@ -93,6 +119,65 @@ public class PluginBranchSpecificSettings {
         return dislikeWarnings;
     }
 
+    /**
+     * Minimal number of files in patchset, from which files are matched against components in parallel
+     */
+    public int getParallelMatchingThreshold() {
+        return parallelMatchingThreshold;
+    }
+
+    /**
+     * Files that are skipped before matching, formatting of messages and resolution of reviewers
+     */
+    public IgnoredPaths getIgnoredPaths() {
+        return ignoredPaths;
+    }
+
+    /**
+     * If true, maintainers files with the same name in subdirectories are used for files below them
+     */
+    public boolean isMaintainersShards() {
+        return maintainersShards;
+    }
+
+    /**
+     * Project that stores maintainers file shared by multiple projects, if empty, project of change is used
+     */
+    public Optional<String> getMaintainersProject() {
+        return Optional.ofNullable(maintainersProject);
+    }
+
+    /**
+     * Full name of ref of maintainers project, that maintainers file is read from
+     */
+    public String getMaintainersProjectRef() {
+        return maintainersProjectRef.startsWith(RefNames.REFS)
+                ? maintainersProjectRef
+                : RefNames.REFS_HEADS + maintainersProjectRef;
+    }
+
+    /**
+     * If true, pushed commits with invalid maintainers file are rejected
+     */
+    public boolean isValidateMaintainersFile() {
+        return validateMaintainersFile;
+    }
+
+    /**
+     * Time budget for processing of single event in seconds, 0 if processing is not limited
+     */
+    public int getEventTimeoutSeconds() {
+        return eventTimeoutSeconds;
+    }
+
+    /**
+     * Time in seconds for which changes ready for submit are collected to be submitted together, 0 if changes are
+     * submitted right away
+     */
+    public int getSubmitBatchWindowSeconds() {
+        return submitBatchWindowSeconds;
+    }
+
 
     public static class PluginSettingsBuilder {
         private String pluginUserName;
@@ -104,6 +189,14 @@ public class PluginBranchSpecificSettings {
         private boolean autoAddReviewers;
         private boolean autoSubmit;
         private boolean dislikeWarnings;
+        private int parallelMatchingThreshold = Integer.MAX_VALUE;
+        private IgnoredPaths ignoredPaths = IgnoredPaths.NONE;
+        private boolean maintainersShards;
+        private String maintainersProject;
+        private String maintainersProjectRef = RefNames.REFS_HEADS + "master";
+        private boolean validateMaintainersFile;
+        private int eventTimeoutSeconds;
+        private int submitBatchWindowSeconds;
 
         private String reduceWildcard(String input) {
             if (input.endsWith("*")) {
@@ -155,9 +248,51 @@ public class PluginBranchSpecificSettings {
             return this;
         }
 
+        public PluginSettingsBuilder setParallelMatchingThreshold(final int parallelMatchingThreshold) {
+            this.parallelMatchingThreshold = parallelMatchingThreshold;
+            return this;
+        }
+
+        public PluginSettingsBuilder setIgnoredPaths(final IgnoredPaths ignoredPaths) {
+            this.ignoredPaths = ignoredPaths;
+            return this;
+        }
+
+        public PluginSettingsBuilder setMaintainersShards(final boolean maintainersShards) {
+            this.maintainersShards = maintainersShards;
+            return this;
+        }
+
+        public PluginSettingsBuilder setMaintainersProject(final String maintainersProject) {
+            this.maintainersProject = maintainersProject;
+            return this;
+        }
+
+        public PluginSettingsBuilder setMaintainersProjectRef(final String maintainersProjectRef) {
+            this.maintainersProjectRef = maintainersProjectRef;
+            return this;
+        }
+
+        public PluginSettingsBuilder setValidateMaintainersFile(final boolean validateMaintainersFile) {
+            this.validateMaintainersFile = validateMaintainersFile;
+            return this;
+        }
+
+        public PluginSettingsBuilder setEventTimeoutSeconds(final int eventTimeoutSeconds) {
+            this.eventTimeoutSeconds = eventTimeoutSeconds;
+            return this;
+        }
+
+        public PluginSettingsBuilder setSubmitBatchWindowSeconds(final int submitBatchWindowSeconds) {
+            this.submitBatchWindowSeconds = submitBatchWindowSeconds;
+            return this;
+        }
+
         public PluginBranchSpecificSettings createPluginSettings() {
             return new PluginBranchSpecificSettings(pluginUserName, branch, wildcardBranch, fileRef, localFilePath,
-                    allowMaintainersSubmit, autoAddReviewers, autoSubmit, dislikeWarnings);
+                    allowMaintainersSubmit, autoAddReviewers, autoSubmit, dislikeWarnings, parallelMatchingThreshold,
+                    ignoredPaths, maintainersShards, maintainersProject, maintainersProjectRef,
+                    validateMaintainersFile, eventTimeoutSeconds, submitBatchWindowSeconds);
         }
     }
 }
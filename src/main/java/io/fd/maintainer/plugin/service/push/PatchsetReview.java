@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.service.push;
+
+import static io.fd.maintainer.plugin.util.CommonTasks.LINE_SEPARATOR;
+
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import com.google.gerrit.reviewdb.client.Account;
+import io.fd.maintainer.plugin.util.ComponentFilesDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Output of plugin for single patchset. Reviewers, messages and vote are collected from all pushers, so that they
+ * are posted as single review, causing single change update, email and event
+ */
+public class PatchsetReview {
+
+    private final Set<Account.Id> reviewers = new LinkedHashSet<>();
+    private final List<String> messages = new ArrayList<>();
+    private boolean dislike;
+    private ComponentFilesDigest componentsDigest;
+
+    public PatchsetReview addReviewers(@Nonnull final Collection<Account.Id> accounts) {
+        reviewers.addAll(accounts);
+        return this;
+    }
+
+    /**
+     * Removes reviewers that Gerrit refused to add, identified as in review input
+     */
+    public PatchsetReview removeReviewers(@Nonnull final Set<String> rejected) {
+        reviewers.removeIf(reviewer -> rejected.contains(reviewer.toString()));
+        return this;
+    }
+
+    public PatchsetReview addMessage(@Nonnull final String message) {
+        if (!message.isEmpty()) {
+            messages.add(message);
+        }
+        return this;
+    }
+
+    /**
+     * Review is posted with -1
+     */
+    public PatchsetReview dislike() {
+        dislike = true;
+        return this;
+    }
+
+    /**
+     * Digest of components info contained in review, remembered once review is posted
+     */
+    public PatchsetReview setComponentsDigest(@Nonnull final ComponentFilesDigest componentsDigest) {
+        this.componentsDigest = componentsDigest;
+        return this;
+    }
+
+    @Nullable
+    public ComponentFilesDigest getComponentsDigest() {
+        return componentsDigest;
+    }
+
+    public Set<Account.Id> getReviewers() {
+        return reviewers;
+    }
+
+    public boolean isEmpty() {
+        return reviewers.isEmpty() && messages.isEmpty() && !dislike;
+    }
+
+    public ReviewInput toReviewInput(@Nonnull final String onBehalfOf) {
+        final ReviewInput review = dislike
+                ? ReviewInput.dislike()
+                : ReviewInput.noScore();
+        if (!messages.isEmpty()) {
+            review.message(String.join(LINE_SEPARATOR + LINE_SEPARATOR, messages));
+        }
+        reviewers.forEach(reviewer -> review.reviewer(reviewer.toString()));
+        review.onBehalfOf = onBehalfOf;
+        return review;
+    }
+}
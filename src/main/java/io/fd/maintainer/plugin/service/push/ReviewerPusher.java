@@ -17,30 +17,44 @@
 package io.fd.maintainer.plugin.service.push;
 
 import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_FOUND;
-import static java.util.stream.Collectors.toMap;
-
+import static java.lang.String.format;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gerrit.extensions.api.changes.ReviewResult;
+import com.google.gerrit.extensions.restapi.IdString;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
-import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.change.ChangeResource;
 import com.google.gerrit.server.change.ChangesCollection;
 import com.google.gerrit.server.change.PostReview;
-import com.google.gerrit.server.change.PostReviewers;
+import com.google.gerrit.server.change.RevisionResource;
 import com.google.gerrit.server.change.Revisions;
 import com.google.gerrit.server.patch.PatchListCache;
+import com.google.gerrit.server.update.UpdateException;
 import com.google.gwtorm.server.OrmException;
-import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
-import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import io.fd.maintainer.plugin.service.Deadline;
+import io.fd.maintainer.plugin.service.PatchListMatcher;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.CommonTasks;
+import io.fd.maintainer.plugin.util.ComponentFilesDigest;
 import io.fd.maintainer.plugin.util.MaintainersIndex;
 import io.fd.maintainer.plugin.util.PatchListProcessing;
+import io.fd.maintainer.plugin.util.ReviewerInfoFormatter;
 import io.fd.maintainer.plugin.util.WarningGenerator;
+import java.io.IOException;
 import java.util.Collection;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -51,13 +65,13 @@ import org.slf4j.LoggerFactory;
 public class ReviewerPusher implements WarningGenerator, PatchListProcessing, CommonTasks {
 
     private static final Logger LOG = LoggerFactory.getLogger(ReviewerPusher.class);
+    private static final long POSTED_INFO_CACHE_SIZE = 4096;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final ReviewerInfoFormatter REVIEWER_INFO_FORMATTER = new ReviewerInfoFormatter();
 
     @Inject
     private ChangesCollection changesCollection;
 
-    @Inject
-    private Provider<PostReviewers> reviewersProvider;
-
     @Inject
     private Provider<PostReview> reviewProvider;
 
@@ -68,35 +82,166 @@ public class ReviewerPusher implements WarningGenerator, PatchListProcessing, Co
     private Revisions revisions;
 
     @Inject
-    private SchemaFactory<ReviewDb> schemaFactory;
+    private PatchListMatcher patchListMatcher;
 
+    // digest of reviewer info last posted on change, so that the same info is not posted for each patchset
+    private final Cache<Change.Id, ComponentFilesDigest> postedInfo = CacheBuilder.newBuilder()
+            .maximumSize(POSTED_INFO_CACHE_SIZE)
+            .build();
 
-    public void addRelevantReviewers(@Nonnull final MaintainersIndex maintainersIndex,
-                                     @Nonnull final Change change,
-                                     @Nonnull final PatchSet mostCurrentPatchSet,
-                                     @Nonnull final String onBehalfOf) throws OrmException {
+    // accounts are resolved while building index, so no account lookup is needed here
+    private static Set<Account.Id> getReviewers(final MaintainersIndex maintainersIndex,
+                                                final Set<ComponentReviewInfo> reviewInfoSet) {
+        return reviewInfoSet.stream()
+                .filter(reviewInfo -> reviewInfo.getState() == COMPONENT_FOUND)
+                .map(ComponentReviewInfo::getComponentName)
+                .distinct()
+                .map(maintainersIndex::getAccountsForComponent)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet());
+    }
 
-        final Set<ComponentReviewInfo> reviewInfoSet =
-                getRelevantPatchListEntries(getPatchList(patchListCache, change, mostCurrentPatchSet))
+    // owner can not be reviewer of own change
+    private static Set<Account.Id> getMissingReviewers(final MaintainersIndex maintainersIndex,
+                                                       final Set<ComponentReviewInfo> reviewInfoSet,
+                                                       final Change change,
+                                                       final Set<Account.Id> currentReviewers) {
+        return getReviewers(maintainersIndex, reviewInfoSet).stream()
+                .filter(reviewer -> !currentReviewers.contains(reviewer))
+                .filter(reviewer -> !reviewer.equals(change.getOwner()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns reviewers that could not be added, as review is not applied at all if any of them is rejected
+     */
+    @VisibleForTesting
+    static Set<String> getRejectedReviewers(@Nonnull final Response<ReviewResult> response) {
+        final ReviewResult result = response.value();
+        if (result == null || result.reviewers == null) {
+            return Collections.emptySet();
+        }
+        return result.reviewers.values().stream()
+                .filter(reviewer -> reviewer.error != null)
+                .map(reviewer -> reviewer.input)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isApplied(final Response<ReviewResult> response) {
+        return response.statusCode() < HTTP_BAD_REQUEST;
+    }
+
+    private Set<ComponentReviewInfo> getReviewInfo(final MaintainersIndex maintainersIndex,
+                                                   final Change change,
+                                                   final PatchSet mostCurrentPatchSet,
+                                                   final PluginBranchSpecificSettings settings,
+                                                   final Deadline deadline) {
+        final List<String> affectedFiles =
+                getRelevantPatchListEntries(getPatchList(patchListCache, change, mostCurrentPatchSet),
+                        settings.getIgnoredPaths())
                         .stream()
                         .map(this::getRelevantChangeName)
-                        .map(maintainersIndex::getReviewInfoForPath)
-                        .collect(Collectors.toSet());
+                        .collect(Collectors.toList());
+        return new HashSet<>(patchListMatcher.match(affectedFiles, maintainersIndex::getReviewInfoForPath,
+                settings.getParallelMatchingThreshold(), deadline));
+    }
 
-        final ReviewDb reviewDb = schemaFactory.open();
-        final Map<String, Account.Id> accountIndex = reviewDb.accounts().all().toList().stream()
-                .collect(toMap(Account::getFullName, Account::getId));
+    /**
+     * Adds maintainers of affected components that are not reviewers of the change yet and info about components of
+     * affected files to review. If info has been posted on change already, only summary of its differences is added,
+     * or nothing if it has not changed
+     */
+    public void addRelevantReviewers(@Nonnull final MaintainersIndex maintainersIndex,
+                                     @Nonnull final Change change,
+                                     @Nonnull final PatchSet mostCurrentPatchSet,
+                                     @Nonnull final Set<Account.Id> currentReviewers,
+                                     @Nonnull final PluginBranchSpecificSettings settings,
+                                     @Nonnull final Deadline deadline,
+                                     @Nonnull final PatchsetReview review) {
+        final Set<ComponentReviewInfo> reviewInfoSet =
+                getReviewInfo(maintainersIndex, change, mostCurrentPatchSet, settings, deadline);
+
+        final Set<Account.Id> missingReviewers =
+                getMissingReviewers(maintainersIndex, reviewInfoSet, change, currentReviewers);
+        LOG.info("Adding {} reviewers for change {}", missingReviewers.size(), change.getId());
+        review.addReviewers(missingReviewers);
+
+        final ComponentFilesDigest digest = ComponentFilesDigest.of(reviewInfoSet);
+        final ComponentFilesDigest previous = postedInfo.getIfPresent(change.getId());
+        if (previous == null) {
+            review.addMessage(REVIEWER_INFO_FORMATTER.format(reviewInfoSet)).setComponentsDigest(digest);
+        } else if (!previous.equals(digest)) {
+            review.addMessage(digest.diffSummary(previous)).setComponentsDigest(digest);
+        } else {
+            LOG.info("Components of change {} not changed, reviewer info not posted", change.getId());
+        }
+    }
 
-        final Set<Account.Id> reviewersToBeAdded = reviewInfoSet.stream()
-                .filter(reviewInfo -> reviewInfo.getState() == COMPONENT_FOUND)
-                .map(ComponentReviewInfo::getComponentMaintainers)
-                .flatMap(Collection::stream)
-                .map(Maintainer::getName)
-                .map(accountIndex::get)
-                .collect(Collectors.toSet());
+    /**
+     * Posts everything collected for patchset as single review, nothing is posted for empty review. If some reviewers
+     * can not be added, review is posted again without them
+     */
+    public void postReview(@Nonnull final PatchsetReview review,
+                           @Nonnull final Change change,
+                           @Nonnull final PatchSet patchSet,
+                           @Nonnull final PluginBranchSpecificSettings settings) {
+        if (review.isEmpty()) {
+            return;
+        }
+        try {
+            final ChangeResource changeResource = changesCollection.parse(change.getId());
+            final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
+            Response<ReviewResult> response =
+                    reviewProvider.get().apply(revisionResource, review.toReviewInput(settings.getPluginUserName()));
+            final Set<String> rejected = isApplied(response)
+                    ? Collections.emptySet()
+                    : getRejectedReviewers(response);
+            if (!rejected.isEmpty()) {
+                LOG.warn("Reviewers {} can not be added to change {}, posting review without them", rejected,
+                        change.getId());
+                response = reviewProvider.get().apply(revisionResource,
+                        review.removeReviewers(rejected).toReviewInput(settings.getPluginUserName()));
+            }
+            if (!isApplied(response)) {
+                throw new IllegalStateException(format("Review for change %s / patchset %s rejected with status %s",
+                        change.getId(), patchSet.getId(), response.statusCode()));
+            }
+            // info not posted because of failure or timeout is posted in full next time
+            if (review.getComponentsDigest() != null) {
+                postedInfo.put(change.getId(), review.getComponentsDigest());
+            }
+        } catch (IOException | RestApiException | UpdateException | OrmException e) {
+            throw new IllegalStateException(format("Unable to post review for change %s / patchset %s",
+                    change.getId(), patchSet.getId()), e);
+        }
+    }
 
-        LOG.info("Adding reviewers for change {}", change.getId());
-        addReviewers(reviewersProvider.get(), reviewersToBeAdded, changesCollection, change);
-        sendReviewersInfo(reviewInfoSet, change, changesCollection, revisions, reviewProvider.get(), onBehalfOf);
+    /**
+     * Adds maintainers of affected components that are not reviewers of the change yet. All of them are added by
+     * single review together with components info, nothing is posted if there is no reviewer missing
+     *
+     * @return number of added reviewers
+     */
+    public int addMissingReviewers(@Nonnull final MaintainersIndex maintainersIndex,
+                                   @Nonnull final Change change,
+                                   @Nonnull final PatchSet mostCurrentPatchSet,
+                                   @Nonnull final Set<Account.Id> currentReviewers,
+                                   @Nonnull final PluginBranchSpecificSettings settings,
+                                   @Nonnull final Deadline deadline) {
+        final Set<ComponentReviewInfo> reviewInfoSet =
+                getReviewInfo(maintainersIndex, change, mostCurrentPatchSet, settings, deadline);
+        final Set<Account.Id> missingReviewers =
+                getMissingReviewers(maintainersIndex, reviewInfoSet, change, currentReviewers);
+        if (missingReviewers.isEmpty()) {
+            return 0;
+        }
+
+        deadline.check("adding reviewers");
+        postReview(new PatchsetReview()
+                .addReviewers(missingReviewers)
+                .addMessage("Maintainers file has been updated.")
+                .addMessage(REVIEWER_INFO_FORMATTER.format(reviewInfoSet))
+                .setComponentsDigest(ComponentFilesDigest.of(reviewInfoSet)), change, mostCurrentPatchSet, settings);
+        return missingReviewers.size();
     }
 }
@@ -18,23 +18,74 @@ package io.fd.maintainer.plugin.service.push;
 
 import static java.lang.String.format;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gerrit.common.data.SubmitRecord;
 import com.google.gerrit.extensions.api.changes.SubmitInput;
+import com.google.gerrit.extensions.events.LifecycleListener;
 import com.google.gerrit.extensions.restapi.IdString;
 import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gerrit.reviewdb.client.Branch;
 import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.server.ReviewDb;
 import com.google.gerrit.server.change.ChangeResource;
 import com.google.gerrit.server.change.ChangesCollection;
 import com.google.gerrit.server.change.RevisionResource;
 import com.google.gerrit.server.change.Revisions;
 import com.google.gerrit.server.change.Submit;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.project.SubmitRuleOptions;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
 import com.google.gwtorm.server.OrmException;
+import com.google.gwtorm.server.SchemaFactory;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.ChangeLocks;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Submits approved changes. Submit rules and mergeability are evaluated before submit, changes that are not ready
+ * yet are not submitted but retried later with growing delay, so that expensive submit attempt is not wasted.
+ * If batch window is configured, ready changes of the same branch are collected over such window and submitted
+ * together, parents first
+ */
 @Singleton
-public class SubmitPusher {
+public class SubmitPusher implements LifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SubmitPusher.class);
+
+    private static final String QUEUE_NAME = "maintainer-submit";
+    private static final int MAX_RETRIES = 6;
+    private static final long FIRST_RETRY_DELAY_SECONDS = 60;
+    private static final SubmitRuleOptions SUBMIT_RULE_OPTIONS = SubmitRuleOptions.defaults().build();
 
     @Inject
     private Submit submitApi;
@@ -45,17 +96,288 @@ public class SubmitPusher {
     @Inject
     private Revisions revisions;
 
-    public void submitPatch(@Nonnull final Change change,
-                            @Nonnull final String onBehalfOf) {
-        SubmitInput request = new SubmitInput();
-        request.onBehalfOf = onBehalfOf;
+    @Inject
+    private SchemaFactory<ReviewDb> schemaFactory;
 
-        try {
-            ChangeResource changeResource = changesCollection.parse(change.getId());
+    @Inject
+    private ChangeData.Factory changeDataFactory;
+
+    @Inject
+    private WorkQueue workQueue;
+
+    @Inject
+    private ChangeLocks changeLocks;
+
+    @Inject
+    private GitRepositoryManager manager;
+
+    // retries and batches run on plugin queue, that has no request context
+    @Inject
+    private OneOffRequestContext requestContext;
+
+    // changes waiting for retry, so that each change has at most one retry scheduled
+    private final ConcurrentMap<Change.Id, Integer> pendingRetries = new ConcurrentHashMap<>();
+    // changes waiting for batch submit per branch, with user on whose behalf they are submitted.
+    // Batches are modified only within compute/remove, so that change is never added to already flushed batch
+    private final ConcurrentMap<Branch.NameKey, Map<Change.Id, String>> batches = new ConcurrentHashMap<>();
+    private volatile WorkQueue.Executor executor;
+
+    // only labels that block submit are listed
+    private static String formatRecord(final SubmitRecord record) {
+        if (record.errorMessage != null) {
+            return record.errorMessage;
+        }
+        if (record.labels == null) {
+            return record.status.toString();
+        }
+        return record.status + " " + record.labels.stream()
+                .filter(label -> label.status != SubmitRecord.Label.Status.OK
+                        && label.status != SubmitRecord.Label.Status.MAY)
+                .map(label -> label.status + " " + label.label)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns reason why change can not be submitted yet, or empty if it can be submitted. Unknown mergeability is
+     * not considered as reason, as submit computes it anyway
+     */
+    @VisibleForTesting
+    static Optional<String> notReadyReason(@Nonnull final List<SubmitRecord> submitRecords,
+                                           @Nullable final Boolean mergeable) {
+        if (!SubmitRecord.findOkRecord(submitRecords).isPresent()) {
+            return Optional.of(submitRecords.stream()
+                    .map(SubmitPusher::formatRecord)
+                    .collect(Collectors.joining(", ", "submit requirements not met: ", "")));
+        }
+        if (Boolean.FALSE.equals(mergeable)) {
+            return Optional.of("change is not mergeable");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Orders changes so that each one follows changes it depends on. Only commits not yet merged to branch are walked,
+     * changes whose commits are not reached keep their original order at the end
+     */
+    @VisibleForTesting
+    static List<Change.Id> inDependencyOrder(@Nonnull final RevWalk revWalk,
+                                             @Nonnull final Map<ObjectId, Change.Id> changesByCommit,
+                                             @Nullable final ObjectId branchTip) throws IOException {
+        revWalk.sort(RevSort.TOPO);
+        revWalk.sort(RevSort.REVERSE, true);
+        for (final ObjectId commit : changesByCommit.keySet()) {
+            revWalk.markStart(revWalk.parseCommit(commit));
+        }
+        if (branchTip != null) {
+            revWalk.markUninteresting(revWalk.parseCommit(branchTip));
+        }
+
+        final Set<Change.Id> ordered = new LinkedHashSet<>();
+        for (final RevCommit commit : revWalk) {
+            final Change.Id changeId = changesByCommit.get(commit);
+            if (changeId != null) {
+                ordered.add(changeId);
+            }
+        }
+        ordered.addAll(changesByCommit.values());
+        return new ArrayList<>(ordered);
+    }
+
+    /**
+     * Submits change if it is ready, otherwise schedules retry
+     *
+     * @return true if change has been submitted
+     */
+    public boolean submitPatch(@Nonnull final Change change,
+                               @Nonnull final String onBehalfOf) {
+        return submitPatch(change, onBehalfOf, 0);
+    }
+
+    /**
+     * Submits change if it is ready, otherwise schedules retry. If batch window is positive, ready change is only
+     * added to batch of its branch, that is submitted once window elapses
+     *
+     * @return true if change has been submitted or added to batch
+     */
+    public boolean submitPatch(@Nonnull final Change change,
+                               @Nonnull final String onBehalfOf,
+                               final int batchWindowSeconds) {
+        return submitPatch(change.getId(), onBehalfOf, 0, batchWindowSeconds);
+    }
+
+    private boolean submitPatch(final Change.Id changeId, final String onBehalfOf, final int retry,
+                                final int batchWindowSeconds) {
+        try (final ReviewDb reviewDb = schemaFactory.open()) {
+            final ChangeResource changeResource = changesCollection.parse(changeId);
+            if (!changeResource.getChange().getStatus().isOpen()) {
+                LOG.info("Change {} is not open anymore, not submitting", changeId);
+                return false;
+            }
             final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
+
+            final ChangeData changeData = changeDataFactory.create(reviewDb, revisionResource.getControl());
+            final Optional<String> notReady =
+                    notReadyReason(changeData.submitRecords(SUBMIT_RULE_OPTIONS), changeData.isMergeable());
+            if (notReady.isPresent()) {
+                LOG.info("Change {} is not ready for submit: {}", changeId, notReady.get());
+                scheduleRetry(changeId, onBehalfOf, retry);
+                return false;
+            }
+            if (batchWindowSeconds > 0
+                    && addToBatch(changeResource.getChange(), onBehalfOf, batchWindowSeconds)) {
+                return true;
+            }
+
+            final SubmitInput request = new SubmitInput();
+            request.onBehalfOf = onBehalfOf;
             submitApi.apply(revisionResource, request);
+            return true;
         } catch (OrmException | RestApiException | IOException e) {
-            throw new IllegalStateException(format("Unable to submit change %s", change.getId()));
+            throw new IllegalStateException(format("Unable to submit change %s", changeId), e);
+        }
+    }
+
+    // returns false if batch can not be submitted later, so change should be submitted right away
+    private boolean addToBatch(final Change change, final String onBehalfOf, final int batchWindowSeconds) {
+        final WorkQueue.Executor current = executor;
+        if (current == null) {
+            return false;
+        }
+        final Branch.NameKey branch = change.getDest();
+        final AtomicBoolean created = new AtomicBoolean();
+        batches.compute(branch, (key, batch) -> {
+            final Map<Change.Id, String> updated = batch == null
+                    ? new LinkedHashMap<>()
+                    : batch;
+            created.set(batch == null);
+            updated.put(change.getId(), onBehalfOf);
+            return updated;
+        });
+        LOG.info("Change {} added to submit batch of branch {}", change.getId(), branch.get());
+        if (!created.get()) {
+            return true;
+        }
+
+        try {
+            current.schedule(() -> submitBatch(branch), batchWindowSeconds, TimeUnit.SECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (batches.remove(branch, Collections.singletonMap(change.getId(), onBehalfOf))) {
+                return false;
+            }
+            // other changes joined the batch meanwhile, they would not be submitted by anyone else
+            submitBatch(branch);
+            return true;
+        }
+    }
+
+    private void submitBatch(final Branch.NameKey branch) {
+        final Map<Change.Id, String> batch = batches.remove(branch);
+        if (batch == null) {
+            return;
+        }
+
+        final List<Change.Id> ordered = orderBatch(branch, batch);
+        LOG.info("Submitting batch of {} changes of branch {}", ordered.size(), branch.get());
+        try (final ManualRequestContext ignored = requestContext.open()) {
+            for (final Change.Id changeId : ordered) {
+                final Lock changeLock = changeLocks.forChange(changeId);
+                changeLock.lock();
+                try {
+                    // readiness is checked again, as change may depend on change submitted just before
+                    submitPatch(changeId, batch.get(changeId), 0, 0);
+                } catch (RuntimeException e) {
+                    LOG.error("Submit of change {} from batch failed", changeId, e);
+                } finally {
+                    changeLock.unlock();
+                }
+            }
+        } catch (OrmException e) {
+            LOG.error("Unable to submit batch of branch {}", branch.get(), e);
+        }
+    }
+
+    // falls back to order in which changes became ready if commits can not be walked
+    private List<Change.Id> orderBatch(final Branch.NameKey branch, final Map<Change.Id, String> batch) {
+        if (batch.size() < 2) {
+            return new ArrayList<>(batch.keySet());
+        }
+        try (final ReviewDb reviewDb = schemaFactory.open();
+             final Repository repository = manager.openRepository(branch.getParentKey());
+             final RevWalk revWalk = new RevWalk(repository)) {
+            final Map<ObjectId, Change.Id> changesByCommit = new LinkedHashMap<>();
+            for (final Change.Id changeId : batch.keySet()) {
+                final Change change = reviewDb.changes().get(changeId);
+                final PatchSet patchSet = change == null
+                        ? null
+                        : reviewDb.patchSets().get(change.currentPatchSetId());
+                if (patchSet != null) {
+                    changesByCommit.put(ObjectId.fromString(patchSet.getRevision().get()), changeId);
+                }
+            }
+            final Ref branchRef = repository.exactRef(branch.get());
+            final List<Change.Id> ordered = inDependencyOrder(revWalk, changesByCommit, branchRef == null
+                    ? null
+                    : branchRef.getObjectId());
+            batch.keySet().stream()
+                    .filter(changeId -> !ordered.contains(changeId))
+                    .forEach(ordered::add);
+            return ordered;
+        } catch (OrmException | IOException e) {
+            LOG.warn("Unable to order submit batch of branch {}, submitting in original order", branch.get(), e);
+            return new ArrayList<>(batch.keySet());
+        }
+    }
+
+    private void scheduleRetry(final Change.Id changeId, final String onBehalfOf, final int retry) {
+        final WorkQueue.Executor current = executor;
+        if (current == null || retry >= MAX_RETRIES) {
+            LOG.warn("Change {} is not retried to be submitted anymore", changeId);
+            return;
+        }
+        // retry already scheduled by other event is kept
+        if (retry == 0 && pendingRetries.putIfAbsent(changeId, retry) != null) {
+            return;
+        }
+        pendingRetries.put(changeId, retry);
+
+        final long delay = FIRST_RETRY_DELAY_SECONDS << retry;
+        try {
+            current.schedule(() -> retry(changeId, onBehalfOf, retry + 1), delay, TimeUnit.SECONDS);
+            LOG.info("Submit of change {} retried in {} seconds", changeId, delay);
+        } catch (RejectedExecutionException e) {
+            pendingRetries.remove(changeId);
+        }
+    }
+
+    private void retry(final Change.Id changeId, final String onBehalfOf, final int retry) {
+        pendingRetries.remove(changeId);
+        final Lock changeLock = changeLocks.forChange(changeId);
+        changeLock.lock();
+        try (final ManualRequestContext ignored = requestContext.open()) {
+            if (submitPatch(changeId, onBehalfOf, retry, 0)) {
+                LOG.info("Change {} submitted on retry {}", changeId, retry);
+            }
+        } catch (RuntimeException | OrmException e) {
+            LOG.error("Retry of submit of change {} failed", changeId, e);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        executor = workQueue.createQueue(1, QUEUE_NAME);
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.unregisterWorkQueue();
+            executor = null;
         }
+        pendingRetries.clear();
+        batches.clear();
     }
 }
@@ -18,6 +18,8 @@ package io.fd.maintainer.plugin.service.push;
 
 import static java.lang.String.format;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gerrit.extensions.api.changes.ReviewInput;
 import com.google.gerrit.extensions.restapi.IdString;
 import com.google.gerrit.extensions.restapi.RestApiException;
@@ -33,6 +35,8 @@ import com.google.gwtorm.server.OrmException;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import io.fd.maintainer.plugin.service.DeadlineExceededException;
+import io.fd.maintainer.plugin.service.InvalidMaintainersFileException;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
 import io.fd.maintainer.plugin.util.CommonTasks;
 import io.fd.maintainer.plugin.util.WarningGenerator;
@@ -47,6 +51,7 @@ import org.slf4j.LoggerFactory;
 public class WarningPusher implements CommonTasks {
 
     private static final Logger LOG = LoggerFactory.getLogger(WarningPusher.class);
+    private static final long SENT_WARNINGS_CACHE_SIZE = 4096;
 
     @Inject
     private ChangesCollection changesCollection;
@@ -57,6 +62,12 @@ public class WarningPusher implements CommonTasks {
     @Inject
     private Provider<PostReview> reviewProvider;
 
+    // changes already warned about invalid maintainers file, by change and blob of the file,
+    // and patchsets already warned about processing timeout
+    private final Cache<String, Boolean> sentWarnings = CacheBuilder.newBuilder()
+            .maximumSize(SENT_WARNINGS_CACHE_SIZE)
+            .build();
+
     private static String formatComments(final Set<WarningGenerator.ComponentChangeWarning> comments) {
         return "Following entries are now no longer part of their components. Maintainers file update is recommended."
                 + LINE_SEPARATOR + LINE_SEPARATOR
@@ -69,12 +80,17 @@ public class WarningPusher implements CommonTasks {
                 .collect(Collectors.joining(LINE_SEPARATOR));
     }
 
-    public void sendWarnings(@Nonnull final Set<ComponentChangeWarning> comments,
-                             @Nonnull final Change change,
-                             @Nonnull final PatchSet patchSet,
-                             @Nonnull final PluginBranchSpecificSettings settings) throws OrmException {
-        if (comments.isEmpty()) {
-            LOG.warn("No warnings");
+    /**
+     * Posts warning that maintainers file is invalid, only once per change and version of the file
+     */
+    public void sendInvalidMaintainersFileWarning(@Nonnull final InvalidMaintainersFileException invalidFile,
+                                                  @Nonnull final Change change,
+                                                  @Nonnull final PatchSet patchSet,
+                                                  @Nonnull final PluginBranchSpecificSettings settings) {
+        final String key = change.getId() + ":" + invalidFile.getFileId().getName();
+        if (sentWarnings.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+            LOG.warn("Change {} already warned about invalid maintainers file {}", change.getId(),
+                    invalidFile.getFileId().getName());
             return;
         }
 
@@ -82,21 +98,66 @@ public class WarningPusher implements CommonTasks {
             ChangeResource changeResource = changesCollection.parse(change.getId());
             final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
 
-            ReviewInput review;
-            if (settings.isDislikeWarnings()) {
-                review = ReviewInput.dislike();// review -1
-            } else {
-                review = ReviewInput.noScore();// review 0
-            }
+            final ReviewInput review = ReviewInput.noScore();
+            review.message(format("Maintainers file %s is invalid, components of this change can not be resolved."
+                            + LINE_SEPARATOR + LINE_SEPARATOR + "%s", invalidFile.getFileId().abbreviate(7).name(),
+                    invalidFile.getReason()));
+            review.onBehalfOf = settings.getPluginUserName();
+
+            reviewProvider.get().apply(revisionResource, review);
+        } catch (IOException | RestApiException | UpdateException | OrmException e) {
+            sentWarnings.invalidate(key);
+            throw new IllegalStateException(
+                    format("Unable to add invalid maintainers file warning for change %s / patchset %s",
+                            change.getId(), patchSet.getId()), e);
+        }
+    }
+
+    /**
+     * Posts message that change could not be analysed in time, only once per patchset
+     */
+    public void sendProcessingTimeoutWarning(@Nonnull final DeadlineExceededException timeout,
+                                             @Nonnull final Change change,
+                                             @Nonnull final PatchSet patchSet,
+                                             @Nonnull final PluginBranchSpecificSettings settings) {
+        final String key = patchSet.getId() + ":timeout";
+        if (sentWarnings.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+            LOG.warn("Patchset {} already warned about processing timeout", patchSet.getId());
+            return;
+        }
+
+        try {
+            ChangeResource changeResource = changesCollection.parse(change.getId());
+            final RevisionResource revisionResource = revisions.parse(changeResource, IdString.fromUrl("current"));
 
-            review.message(formatComments(comments));
+            final ReviewInput review = ReviewInput.noScore();
+            review.message(format("Change is too large to analyse in %s seconds, processing stopped before %s.",
+                    settings.getEventTimeoutSeconds(), timeout.getStage()));
             review.onBehalfOf = settings.getPluginUserName();
 
             reviewProvider.get().apply(revisionResource, review);
-        } catch (IOException | RestApiException | UpdateException e) {
+        } catch (IOException | RestApiException | UpdateException | OrmException e) {
+            sentWarnings.invalidate(key);
             throw new IllegalStateException(
-                    format("Unable to add warning comments for change %s / patchset %s", change.getId(),
-                            patchSet.getId()), e);
+                    format("Unable to add processing timeout warning for change %s / patchset %s",
+                            change.getId(), patchSet.getId()), e);
+        }
+    }
+
+    /**
+     * Adds rename warnings to review, with -1 if warnings are disliked
+     */
+    public void addWarnings(@Nonnull final Set<ComponentChangeWarning> comments,
+                            @Nonnull final PatchsetReview review,
+                            @Nonnull final PluginBranchSpecificSettings settings) {
+        if (comments.isEmpty()) {
+            LOG.warn("No warnings");
+            return;
+        }
+
+        review.addMessage(formatComments(comments));
+        if (settings.isDislikeWarnings()) {
+            review.dislike();
         }
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.util;
+
+import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_FOUND;
+import static io.fd.maintainer.plugin.util.CommonTasks.LINE_SEPARATOR;
+
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/**
+ * Content hash of mapping of components to affected files and maintainers, kept per component, so that reviewer info
+ * posted for previous patchset can be compared without keeping the files
+ */
+public final class ComponentFilesDigest {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    // files matching no component are tracked under key that is not valid component title
+    private static final String NO_COMPONENT = "";
+
+    private final Map<String, HashCode> componentHashes;
+
+    private ComponentFilesDigest(final Map<String, HashCode> componentHashes) {
+        this.componentHashes = Collections.unmodifiableMap(componentHashes);
+    }
+
+    private static HashCode hash(final String value) {
+        return HASH.hashString(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Files are hashed independently of their order, as matching does not preserve it
+     */
+    public static ComponentFilesDigest of(@Nonnull final Set<ComponentReviewInfo> reviewInfoSet) {
+        final Map<String, List<HashCode>> hashesPerComponent = new HashMap<>();
+        for (final ComponentReviewInfo reviewInfo : reviewInfoSet) {
+            final boolean found = reviewInfo.getState() == COMPONENT_FOUND;
+            final List<HashCode> hashes = hashesPerComponent.computeIfAbsent(found
+                    ? reviewInfo.getComponentName()
+                    : NO_COMPONENT, key -> new ArrayList<>());
+            if (found && hashes.isEmpty()) {
+                hashes.add(hash(reviewInfo.getComponentMaintainers().stream()
+                        .map(Maintainer::getEmail)
+                        .sorted()
+                        .collect(Collectors.joining(",", "M:", ""))));
+            }
+            hashes.add(hash(reviewInfo.getAffectedFile()));
+        }
+
+        final Map<String, HashCode> componentHashes = new HashMap<>();
+        hashesPerComponent.forEach((component, hashes) ->
+                componentHashes.put(component, Hashing.combineUnordered(hashes)));
+        return new ComponentFilesDigest(componentHashes);
+    }
+
+    /**
+     * Short summary of components whose affected files or maintainers differ from previous digest
+     */
+    public String diffSummary(@Nonnull final ComponentFilesDigest previous) {
+        final Set<String> added = new TreeSet<>(Sets.difference(componentHashes.keySet(),
+                previous.componentHashes.keySet()));
+        final Set<String> removed = new TreeSet<>(Sets.difference(previous.componentHashes.keySet(),
+                componentHashes.keySet()));
+        final Set<String> changed = componentHashes.keySet().stream()
+                .filter(previous.componentHashes::containsKey)
+                .filter(component -> !componentHashes.get(component).equals(previous.componentHashes.get(component)))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        final StringBuilder summary = new StringBuilder("Components of affected files changed since previous review.");
+        appendComponents(summary, "Newly affected components", added);
+        appendComponents(summary, "No longer affected components", removed);
+        appendComponents(summary, "Components with changed files or maintainers", changed);
+        return summary.toString();
+    }
+
+    private static void appendComponents(final StringBuilder summary, final String title,
+                                         final Set<String> components) {
+        if (components.isEmpty()) {
+            return;
+        }
+        summary.append(LINE_SEPARATOR).append(LINE_SEPARATOR).append(title).append(" :");
+        for (final String component : components) {
+            summary.append(LINE_SEPARATOR).append(' ').append(component.equals(NO_COMPONENT)
+                    ? "files without component"
+                    : component);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(componentHashes, ((ComponentFilesDigest) o).componentHashes);
+    }
+
+    @Override
+    public int hashCode() {
+        return componentHashes.hashCode();
+    }
+}
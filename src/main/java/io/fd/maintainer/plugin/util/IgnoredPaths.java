@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import static java.util.Collections.emptyList;
+
+import com.google.common.collect.ImmutableList;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.ComponentPathMatcher;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Compiled patterns of files that should not be processed at all, like generated or vendored sources. Uses the same
+ * syntax as F: lines of maintainers file
+ */
+public final class IgnoredPaths {
+
+    public static final IgnoredPaths NONE = new IgnoredPaths(emptyList());
+
+    private final ImmutableList<String> patterns;
+    private final ComponentPathMatcher matcher;
+
+    public IgnoredPaths(@Nonnull final List<String> patterns) {
+        this.patterns = ImmutableList.copyOf(patterns);
+        this.matcher = new ComponentPathMatcher(this.patterns.stream()
+                .map(ComponentPath::new)
+                .collect(Collectors.toList()));
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * Missing path, like old name of added file, is considered ignored
+     */
+    public boolean isIgnored(@Nullable final String path) {
+        if (path == null) {
+            return true;
+        }
+        if (isEmpty() || !matcher.mayMatch(path)) {
+            return false;
+        }
+
+        final boolean[] ignored = {false};
+        matcher.match(path, (pathIndex, level) -> ignored[0] = true);
+        return ignored[0];
+    }
+
+    @Override
+    public String toString() {
+        return "IgnoredPaths{" +
+                "patterns=" + patterns +
+                '}';
+    }
+}
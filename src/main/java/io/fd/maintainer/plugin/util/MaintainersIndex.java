@@ -19,57 +19,171 @@ package io.fd.maintainer.plugin.util;
 import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.MAX;
 import static io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel.NONE;
 
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multiset;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.server.patch.PatchListEntry;
 import io.fd.maintainer.plugin.parser.ComponentInfo;
 import io.fd.maintainer.plugin.parser.ComponentPath;
 import io.fd.maintainer.plugin.parser.ComponentPath.MatchLevel;
+import io.fd.maintainer.plugin.parser.ComponentPathMatcher;
 import io.fd.maintainer.plugin.parser.Maintainer;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo;
 import io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoBuilder;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.parboiled.common.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Immutable snapshot of maintainers file content, optimized for matching of files to components. Once built, it can be
+ * shared by any number of threads without locking
+ */
 public final class MaintainersIndex implements ClosestMatch {
 
     private static final Logger LOG = LoggerFactory.getLogger(MaintainersIndex.class);
+    // accounts resolved before are looked up again, so that renamed or re-assigned accounts are picked up even if
+    // maintainers file keeps changing
+    static final long ACCOUNT_RESOLUTION_TTL_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+    // components are referenced by their position in these lists, so that reviewed components can be kept as bits
+    private final ImmutableList<String> componentTitles;
+    private final ImmutableList<ImmutableSet<Maintainer>> componentMaintainers;
+    private final ImmutableMap<String, Integer> componentOrdinals;
+
+    // all paths of all components, with ordinal of owning component on the same position
+    private final ComponentPath[] paths;
+    private final int[] pathComponents;
+    private final int[] pathLengths;
+    private final ImmutableMap<String, Integer> pathOrdinals;
+    private final ComponentPathMatcher pathMatcher;
+
+    // excluded paths of all components, with ordinal of component they are excluded from
+    private final int[] excludedPathComponents;
+    private final ComponentPathMatcher excludedPathMatcher;
 
-    private Map<ComponentPath, Set<Maintainer>> pathToMaintainersIndex;
-    private Map<String, String> pathToComponentIndex;
-    private Multimap<String, String> maintainerNameToComponentIndex;
-    private Map<String, Boolean> reviewComponentIndex;
-
-    public MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers) {
-        pathToMaintainersIndex = maintainers.stream()
-                .flatMap(maintainersInfo -> maintainersInfo.getPaths().stream()
-                        .map(componentPath -> new Tuple2<>(componentPath, maintainersInfo.getMaintainers())))
-                .collect(Collectors.toMap(tuple -> tuple.a, tuple -> tuple.b));
-
-        pathToComponentIndex = new HashMap<>();
-        maintainers.forEach(maintainersInfo -> maintainersInfo.getPaths()
-                .forEach(
-                        componentPath ->
-                                pathToComponentIndex.put(componentPath.getPath(), maintainersInfo.getTitle())
-                ));
-        maintainerNameToComponentIndex = LinkedListMultimap.create();
-        maintainers.forEach(maintainersInfo -> maintainersInfo.getMaintainers().forEach(maintainer ->
-                maintainerNameToComponentIndex.put(maintainer.getName(), maintainersInfo.getTitle())));
-
-        reviewComponentIndex = maintainers.stream()
-                .collect(Collectors.toMap(ComponentInfo::getTitle, component -> !component.getMaintainers().isEmpty()));
+    private final ImmutableMap<Account.Id, BitSet> accountToComponentsIndex;
+    private final ImmutableSetMultimap<String, Account.Id> componentToAccountsIndex;
+    // kept for next version of index, so that accounts are not resolved again
+    private final ImmutableMap<Maintainer, ResolvedAccount> resolvedAccounts;
+
+    /**
+     * @param maintainers     parsed content of maintainers file
+     * @param accountResolver resolves maintainer to gerrit account, invoked once per maintainer while building index
+     */
+    public MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers,
+                            @Nonnull final Function<Maintainer, Optional<Account.Id>> accountResolver) {
+        this(maintainers, accountResolver, null);
+    }
+
+    /**
+     * @param maintainers     parsed content of maintainers file
+     * @param accountResolver resolves maintainer to gerrit account, invoked once per maintainer that was not resolved
+     *                        by previous version of index
+     * @param previous        previous version of index, its accounts resolved in last hour are reused
+     */
+    public MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers,
+                            @Nonnull final Function<Maintainer, Optional<Account.Id>> accountResolver,
+                            @Nullable final MaintainersIndex previous) {
+        this(maintainers, accountResolver, previous, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    MaintainersIndex(@Nonnull final List<ComponentInfo> maintainers,
+                     @Nonnull final Function<Maintainer, Optional<Account.Id>> accountResolver,
+                     @Nullable final MaintainersIndex previous,
+                     final long now) {
+        final ImmutableList.Builder<String> titlesBuilder = ImmutableList.builder();
+        final ImmutableList.Builder<ImmutableSet<Maintainer>> maintainersBuilder = ImmutableList.builder();
+        final Map<String, Integer> ordinalsBuilder = new HashMap<>();
+        final List<ComponentPath> pathsBuilder = new ArrayList<>();
+        final List<Integer> pathComponentsBuilder = new ArrayList<>();
+        final List<ComponentPath> excludedPathsBuilder = new ArrayList<>();
+        final List<Integer> excludedPathComponentsBuilder = new ArrayList<>();
+        final Map<String, Integer> pathOrdinalsBuilder = new HashMap<>();
+        final Map<Account.Id, BitSet> accountsBuilder = new HashMap<>();
+        final ImmutableSetMultimap.Builder<String, Account.Id> componentAccountsBuilder =
+                ImmutableSetMultimap.builder();
+        final Map<Maintainer, Optional<ResolvedAccount>> resolvedAccountsBuilder = new HashMap<>();
+        // maintainers without account are resolved again, account could have been created since
+        if (previous != null) {
+            previous.resolvedAccounts.forEach((maintainer, resolved) -> {
+                if (now - resolved.resolvedAt < ACCOUNT_RESOLUTION_TTL_MILLIS) {
+                    resolvedAccountsBuilder.put(maintainer, Optional.of(resolved));
+                }
+            });
+        }
+        final Function<Maintainer, Optional<ResolvedAccount>> resolver = maintainer ->
+                accountResolver.apply(maintainer).map(accountId -> new ResolvedAccount(accountId, now));
+
+        for (int ordinal = 0; ordinal < maintainers.size(); ordinal++) {
+            final ComponentInfo component = maintainers.get(ordinal);
+            final int componentOrdinal = ordinal;
+            titlesBuilder.add(component.getTitle());
+            maintainersBuilder.add(ImmutableSet.copyOf(component.getMaintainers()));
+            // component can be listed multiple times, for ex. in maintainers files of multiple directories
+            ordinalsBuilder.putIfAbsent(component.getTitle(), ordinal);
+
+            for (ComponentPath path : component.getPaths()) {
+                // same path can be listed by multiple components, first one owns it
+                pathOrdinalsBuilder.putIfAbsent(path.getPath(), ordinal);
+                pathsBuilder.add(path);
+                pathComponentsBuilder.add(ordinal);
+            }
+
+            for (ComponentPath path : component.getExcludedPaths()) {
+                excludedPathsBuilder.add(path);
+                excludedPathComponentsBuilder.add(ordinal);
+            }
+
+            component.getMaintainers().forEach(maintainer -> resolvedAccountsBuilder
+                    .computeIfAbsent(maintainer, resolver)
+                    .ifPresent(resolved -> {
+                        accountsBuilder.computeIfAbsent(resolved.accountId, id -> new BitSet()).set(componentOrdinal);
+                        componentAccountsBuilder.put(component.getTitle(), resolved.accountId);
+                    }));
+        }
+
+        componentTitles = titlesBuilder.build();
+        componentMaintainers = maintainersBuilder.build();
+        componentOrdinals = ImmutableMap.copyOf(ordinalsBuilder);
+        paths = pathsBuilder.toArray(new ComponentPath[pathsBuilder.size()]);
+        pathComponents = pathComponentsBuilder.stream().mapToInt(Integer::intValue).toArray();
+        pathLengths = pathsBuilder.stream().map(ComponentPath::getPath).mapToInt(MaintainersIndex::getPathLength)
+                .toArray();
+        pathOrdinals = ImmutableMap.copyOf(pathOrdinalsBuilder);
+        pathMatcher = new ComponentPathMatcher(pathsBuilder);
+        excludedPathComponents = excludedPathComponentsBuilder.stream().mapToInt(Integer::intValue).toArray();
+        excludedPathMatcher = new ComponentPathMatcher(excludedPathsBuilder);
+        accountToComponentsIndex = ImmutableMap.copyOf(accountsBuilder);
+        componentToAccountsIndex = componentAccountsBuilder.build();
+        // only maintainers still present in file are kept
+        final ImmutableMap.Builder<Maintainer, ResolvedAccount> resolvedBuilder = ImmutableMap.builder();
+        componentMaintainers.stream()
+                .flatMap(Collection::stream)
+                .distinct()
+                .forEach(maintainer -> resolvedAccountsBuilder.get(maintainer)
+                        .ifPresent(resolved -> resolvedBuilder.put(maintainer, resolved)));
+        resolvedAccounts = resolvedBuilder.build();
+        LOG.debug("Maintainers index resolved {} accounts for {} components", accountToComponentsIndex.size(),
+                componentTitles.size());
     }
 
     private static int getPathLength(final String path) {
@@ -80,104 +194,141 @@ public final class MaintainersIndex implements ClosestMatch {
      * Tells whether component has maintainers configured
      */
     public boolean isReviewComponent(@Nonnull final String component) {
-        return reviewComponentIndex.get(component);
+        return !componentMaintainers.get(componentOrdinals.get(component)).isEmpty();
+    }
+
+    /**
+     * Returns all components that are maintained by at least one of provided accounts
+     */
+    public Set<String> getComponentsForAccounts(@Nonnull final Collection<Account.Id> accounts) {
+        final BitSet components = new BitSet(componentTitles.size());
+        accounts.stream()
+                .map(accountToComponentsIndex::get)
+                .filter(Objects::nonNull)
+                .forEach(components::or);
+        return components.stream()
+                .mapToObj(componentTitles::get)
+                .collect(Collectors.toSet());
     }
 
-    public Set<String> getComponentsForMaintainer(@Nonnull final String name) {
-        return new HashSet<>(maintainerNameToComponentIndex.get(name));
+    /**
+     * Returns accounts of maintainers of component, that could be resolved while building index
+     */
+    public Set<Account.Id> getAccountsForComponent(@Nonnull final String component) {
+        return componentToAccountsIndex.get(component);
     }
 
     public String getComponentForPath(@Nonnull final ComponentPath path) {
-        return pathToComponentIndex.get(path.getPath());
+        final Integer ordinal = pathOrdinals.get(path.getPath());
+        return ordinal == null
+                ? null
+                : componentTitles.get(ordinal);
     }
 
     public Tuple2<Set<ComponentPath>, Set<ComponentPath>> getComponentPathsForEntry(
             @Nonnull final PatchListEntry entry) {
-        final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndexOld = LinkedListMultimap.create();
-        final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndexNew = LinkedListMultimap.create();
-        pathToMaintainersIndex.forEach((key, value) -> byMatchIndexOld.put(key.matchAgainst(entry.getOldName()),
-                key));
-
-        pathToMaintainersIndex.forEach((key, value) -> byMatchIndexNew.put(key.matchAgainst(entry.getNewName()),
-                key));
-
-        final MatchLevel maxMatchLevelOld = maxMatchLevel(byMatchIndexOld.keys());
-        final MatchLevel maxMatchLevelNew = maxMatchLevel(byMatchIndexNew.keys());
-
-        final int mostSpecificLengthOld = mostSpecificPathLengthFromComponent(maxMatchLevelOld, byMatchIndexOld);
-        final int mostSpecificLengthNew = mostSpecificPathLengthFromComponent(maxMatchLevelOld, byMatchIndexOld);
-
-        final Set<ComponentPath> oldComponents = NONE == maxMatchLevelOld
-                ? Collections.emptySet()
-                : new HashSet<>(byMatchIndexOld.get(maxMatchLevelOld)
-                        .stream()
-                        .filter(componentPath -> getPathLength(componentPath.getPath()) == mostSpecificLengthOld)
-                        .collect(Collectors.toList()));
-
-        final Set<ComponentPath> newComponents = NONE == maxMatchLevelNew
-                ? Collections.emptySet()
-                : new HashSet<>(byMatchIndexNew.get(maxMatchLevelNew).stream()
-                        .filter(componentPath -> getPathLength(componentPath.getPath()) == mostSpecificLengthNew)
-                        .collect(Collectors.toList()));
-
-        return new Tuple2<>(oldComponents, newComponents);
+        return getComponentPathsForRename(entry.getOldName(), entry.getNewName());
+    }
+
+    /**
+     * Resolves most specific component paths for both old and new name of file
+     */
+    public Tuple2<Set<ComponentPath>, Set<ComponentPath>> getComponentPathsForRename(@Nullable final String oldName,
+                                                                                     @Nullable final String newName) {
+        return new Tuple2<>(match(oldName, false).getPaths(), match(newName, false).getPaths());
     }
 
     public ComponentReviewInfo getReviewInfoForPath(final String path) {
         LOG.debug("Getting maintainers for path {}", path);
-        final LinkedListMultimap<MatchLevel, Tuple2<ComponentPath, Maintainer>> byMatchIndex =
-                LinkedListMultimap.create();
-
-        pathToMaintainersIndex.forEach((key, value) -> value
-                .forEach((entry -> byMatchIndex.put(key.matchAgainst(path), new Tuple2<>(key, entry)))));
-
-        final MatchLevel maximumMatchLevel = maxMatchLevel(byMatchIndex.keys());
-        LOG.debug("Maximum match level for path {} = {}", path, maximumMatchLevel);
+        // only components with maintainers can be assigned
+        final MostSpecificMatch match = match(path, true);
+        LOG.debug("Maximum match level for path {} = {}", path, match.level);
 
-        // out of all that have maximum match level, we need only those that are most basically longest
-        // allows to get /foo/bar/* over * or /foo/*
-        final int mostSpecificPathLength = mostSpecificPathLengthFromTuple(maximumMatchLevel, byMatchIndex);
-
-        if (NONE == maximumMatchLevel) {
+        if (match.candidates.isEmpty()) {
             return new ComponentReviewInfoBuilder()
                     .setAffectedFile(path).createComponentReviewInfo();
-        } else {
-            return byMatchIndex.get(maximumMatchLevel).stream()
-                    .filter(tuple -> getPathLength(tuple.a.getPath()) == mostSpecificPathLength)
-                    .peek(maintainer -> LOG
-                            .debug("Maintainer found [component={},reviewer={}]", maintainer.a, maintainer.b))
-                    .map(tuple -> new ComponentReviewInfoBuilder()
-                            .setAffectedFile(path)
-                            .setComponentName(getComponentForPath(tuple.a))
-                            .setComponentMaintainers(pathToMaintainersIndex.get(tuple.a))
-                            .createComponentReviewInfo())
-                    .findAny().orElse(new ComponentReviewInfoBuilder()
-                            .setAffectedFile(path).createComponentReviewInfo());
         }
+
+        // first most specific path in order of maintainers file
+        final int pathIndex = match.first();
+        final int component = pathComponents[pathIndex];
+        LOG.debug("Component found [path={},component={}]", paths[pathIndex], componentTitles.get(component));
+        return new ComponentReviewInfoBuilder()
+                .setAffectedFile(path)
+                .setComponentName(componentTitles.get(component))
+                .setComponentMaintainers(componentMaintainers.get(component))
+                .createComponentReviewInfo();
     }
 
-    private MatchLevel maxMatchLevel(final Multiset<MatchLevel> keys) {
-        return keys.stream().max(MAX).orElse(NONE);
+    private MostSpecificMatch match(@Nullable final String path, final boolean reviewComponentsOnly) {
+        final MostSpecificMatch match = new MostSpecificMatch();
+        // most of unowned paths are refused by filter, without walking exclusions or paths
+        if (path == null || !pathMatcher.mayMatch(path)) {
+            return match;
+        }
+
+        final BitSet excludedComponents = new BitSet();
+        if (excludedPathComponents.length > 0) {
+            excludedPathMatcher.match(path,
+                    (pathIndex, level) -> excludedComponents.set(excludedPathComponents[pathIndex]));
+        }
+
+        pathMatcher.match(path, (pathIndex, level) -> {
+            final int component = pathComponents[pathIndex];
+            if (!excludedComponents.get(component)
+                    && (!reviewComponentsOnly || !componentMaintainers.get(component).isEmpty())) {
+                match.offer(pathIndex, level);
+            }
+        });
+        return match;
     }
 
-    private int mostSpecificPathLengthFromTuple(final MatchLevel maximumMatchLevel,
-                                                final LinkedListMultimap<MatchLevel, Tuple2<ComponentPath, Maintainer>> byMatchIndex) {
-        return byMatchIndex.get(maximumMatchLevel)
-                .stream()
-                .map(tuple -> tuple.a)
-                .map(ComponentPath::getPath)
-                .map(MaintainersIndex::getPathLength)
-                .max(Comparator.comparingInt(integer -> integer))
-                .orElse(0);
+    /**
+     * Keeps paths with maximum match level. Out of all that have maximum match level, only those that are most
+     * basically longest are kept, which allows to get /foo/bar/* over * or /foo/*
+     */
+    private final class MostSpecificMatch {
+        private final List<Integer> candidates = new ArrayList<>();
+        private MatchLevel level = NONE;
+        private int length = -1;
+
+        private void offer(final int pathIndex, final MatchLevel pathLevel) {
+            if (pathLevel == NONE) {
+                return;
+            }
+
+            final int levelComparison = MAX.compare(pathLevel, level);
+            if (levelComparison > 0 || (levelComparison == 0 && pathLengths[pathIndex] > length)) {
+                candidates.clear();
+                level = pathLevel;
+                length = pathLengths[pathIndex];
+            }
+
+            if (level == pathLevel && length == pathLengths[pathIndex]) {
+                candidates.add(pathIndex);
+            }
+        }
+
+        // paths are offered in order of matching, not in order of maintainers file
+        private int first() {
+            return candidates.stream().mapToInt(Integer::intValue).min().orElse(-1);
+        }
+
+        private Set<ComponentPath> getPaths() {
+            return candidates.stream()
+                    .map(pathIndex -> paths[pathIndex])
+                    .collect(Collectors.toSet());
+        }
     }
 
-    private int mostSpecificPathLengthFromComponent(final MatchLevel maximumMatchLevel,
-                                                    final LinkedListMultimap<MatchLevel, ComponentPath> byMatchIndex) {
-        return byMatchIndex.get(maximumMatchLevel)
-                .stream()
-                .map(ComponentPath::getPath)
-                .map(MaintainersIndex::getPathLength)
-                .max(Comparator.comparingInt(integer -> integer))
-                .orElse(0);
+    // time of resolution is kept, as resolution is carried over from version to version
+    private static final class ResolvedAccount {
+        private final Account.Id accountId;
+        private final long resolvedAt;
+
+        private ResolvedAccount(final Account.Id accountId, final long resolvedAt) {
+            this.accountId = accountId;
+            this.resolvedAt = resolvedAt;
+        }
     }
 }
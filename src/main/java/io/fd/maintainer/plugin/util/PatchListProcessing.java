@@ -19,6 +19,7 @@ package io.fd.maintainer.plugin.util;
 import static com.google.gerrit.reviewdb.client.Patch.COMMIT_MSG;
 import static java.lang.String.format;
 
+import com.google.gerrit.reviewdb.client.Account;
 import com.google.gerrit.reviewdb.client.Change;
 import com.google.gerrit.reviewdb.client.PatchSet;
 import com.google.gerrit.reviewdb.client.PatchSetApproval;
@@ -30,8 +31,11 @@ import com.google.gerrit.server.patch.PatchListEntry;
 import com.google.gerrit.server.patch.PatchListNotAvailableException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
 /**
@@ -41,6 +45,7 @@ public interface PatchListProcessing {
 
     String CODE_REVIEW_LABEL = "Code-Review";
     int PATCHSET_VERIFIED = 1;
+    int PATCHSET_APPROVED = 2;
 
     static boolean isCodeReview(final PatchSetApproval approval) {
         return CODE_REVIEW_LABEL.equals(approval.getLabel());
@@ -50,6 +55,10 @@ public interface PatchListProcessing {
         return PATCHSET_VERIFIED == (int) approval.getValue();
     }
 
+    static boolean isApprovePatchset(final PatchSetApproval approval) {
+        return PATCHSET_APPROVED == (int) approval.getValue();
+    }
+
     static boolean isCodeReview(final ApprovalAttribute approvalAttribute) {
         return CODE_REVIEW_LABEL.equals(approvalAttribute.type);
     }
@@ -62,12 +71,32 @@ public interface PatchListProcessing {
      * Gets relevant patch list entries for processing
      */
     default List<PatchListEntry> getRelevantPatchListEntries(@Nonnull final PatchList patchList) {
+        return getRelevantPatchListEntries(patchList, IgnoredPaths.NONE);
+    }
+
+    /**
+     * Gets relevant patch list entries for processing, dropping files that are ignored by both old and new name
+     */
+    default List<PatchListEntry> getRelevantPatchListEntries(@Nonnull final PatchList patchList,
+                                                             @Nonnull final IgnoredPaths ignoredPaths) {
         return patchList.getPatches().stream()
                 // filters out commit msg
                 .filter(entry -> !COMMIT_MSG.equals(entry.getNewName()))
+                .filter(entry -> ignoredPaths.isEmpty()
+                        || !(ignoredPaths.isIgnored(entry.getOldName()) && ignoredPaths.isIgnored(entry.getNewName())))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gets both old and new names of entries
+     */
+    default Set<String> getAffectedFileNames(@Nonnull final List<PatchListEntry> entries) {
+        return entries.stream()
+                .flatMap(entry -> Stream.of(entry.getOldName(), entry.getNewName()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * By design of plugin, matching of files per component should be done by old name.
      * Only in case of create of new file ,new name is used
@@ -110,4 +139,17 @@ public interface PatchListProcessing {
                 .filter(PatchListProcessing::isVerifyPatchset)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Checks whether account already approved current patchset by Code-Review+2
+     */
+    default boolean isApprovedBy(final List<PatchSetApproval> patchSetApprovals,
+                                 final PatchSet.Id currentPatchsetId,
+                                 final Account.Id accountId) {
+        return patchSetApprovals.stream()
+                .filter(approval -> approval.getPatchSetId().equals(currentPatchsetId))
+                .filter(PatchListProcessing::isCodeReview)
+                .filter(PatchListProcessing::isApprovePatchset)
+                .anyMatch(approval -> approval.getAccountId().equals(accountId));
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.fd.maintainer.plugin.util;
+
+import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_FOUND;
+import static io.fd.maintainer.plugin.util.CommonTasks.LINE_SEPARATOR;
+
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+
+/**
+ * Formats info about components of affected files and their maintainers. Only limited number of files is listed per
+ * component and whole message is bounded, so that message for huge change stays small
+ */
+public final class ReviewerInfoFormatter {
+
+    public static final int DEFAULT_MAX_FILES_PER_COMPONENT = 100;
+    public static final int DEFAULT_MAX_LENGTH = 64 * 1024;
+
+    private static final String TRUNCATED = "Message truncated, remaining components and files are not listed.";
+
+    private final int maxFilesPerComponent;
+    private final int maxLength;
+
+    public ReviewerInfoFormatter() {
+        this(DEFAULT_MAX_FILES_PER_COMPONENT, DEFAULT_MAX_LENGTH);
+    }
+
+    public ReviewerInfoFormatter(final int maxFilesPerComponent, final int maxLength) {
+        this.maxFilesPerComponent = maxFilesPerComponent;
+        this.maxLength = maxLength;
+    }
+
+    public String format(@Nonnull final Set<ComponentReviewInfo> reviewInfoSet) {
+        // only files that are listed are kept, others are just counted
+        final Map<String, ComponentFiles> components = new TreeMap<>();
+        final ComponentFiles noComponent = new ComponentFiles(Collections.emptySet());
+        for (final ComponentReviewInfo reviewInfo : reviewInfoSet) {
+            if (reviewInfo.getState() == COMPONENT_FOUND) {
+                components.computeIfAbsent(reviewInfo.getComponentName(),
+                        name -> new ComponentFiles(reviewInfo.getComponentMaintainers()))
+                        .add(reviewInfo.getAffectedFile(), maxFilesPerComponent);
+            } else {
+                noComponent.add(reviewInfo.getAffectedFile(), maxFilesPerComponent);
+            }
+        }
+
+        final BoundedBuilder message = new BoundedBuilder(maxLength - TRUNCATED.length() - LINE_SEPARATOR.length());
+        for (final Map.Entry<String, ComponentFiles> component : components.entrySet()) {
+            if (message.length() > 0) {
+                message.append(LINE_SEPARATOR);
+            }
+            message.append("Component ", component.getKey(), LINE_SEPARATOR, LINE_SEPARATOR, "Maintainers :");
+            for (final Maintainer maintainer : component.getValue().maintainers) {
+                message.append(LINE_SEPARATOR, " ", maintainer.getName(), "<", maintainer.getEmail(), ">");
+            }
+            message.append(LINE_SEPARATOR, LINE_SEPARATOR, "Affected files :");
+            appendFiles(message, component.getValue(), " Path: ");
+            message.append(LINE_SEPARATOR);
+        }
+
+        if (noComponent.count > 0) {
+            if (message.length() > 0) {
+                message.append(LINE_SEPARATOR);
+            }
+            message.append("No component found for following files");
+            appendFiles(message, noComponent, " ");
+        }
+        return message.build();
+    }
+
+    private static void appendFiles(final BoundedBuilder message, final ComponentFiles files, final String prefix) {
+        for (final String file : files.listed) {
+            message.append(LINE_SEPARATOR, prefix, file);
+        }
+        final int more = files.count - files.listed.size();
+        if (more > 0) {
+            message.append(LINE_SEPARATOR, " and ", Integer.toString(more), " more files");
+        }
+    }
+
+    private static final class ComponentFiles {
+        private final Set<Maintainer> maintainers;
+        // files come in no particular order, so alphabetically first ones are listed, to keep message stable
+        private final TreeSet<String> listed = new TreeSet<>();
+        private int count;
+
+        private ComponentFiles(final Set<Maintainer> maintainers) {
+            this.maintainers = maintainers;
+        }
+
+        private void add(final String file, final int maxListed) {
+            listed.add(file);
+            if (listed.size() > maxListed) {
+                listed.pollLast();
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Appends only whole parts of line, once some does not fit, nothing is appended anymore
+     */
+    private static final class BoundedBuilder {
+        private final StringBuilder builder = new StringBuilder();
+        private final int limit;
+        private boolean truncated;
+
+        private BoundedBuilder(final int limit) {
+            this.limit = limit;
+        }
+
+        private int length() {
+            return builder.length();
+        }
+
+        private void append(final String... parts) {
+            if (truncated) {
+                return;
+            }
+            int length = 0;
+            for (final String part : parts) {
+                length += part.length();
+            }
+            if (builder.length() + length > limit) {
+                truncated = true;
+                return;
+            }
+            for (final String part : parts) {
+                builder.append(part);
+            }
+        }
+
+        private String build() {
+            if (truncated) {
+                builder.append(LINE_SEPARATOR).append(TRUNCATED);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.fd.maintainer.plugin.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EventLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private EventLog log;
+
+    private static List<String> payloads(final List<EventLog.Entry> entries) {
+        return entries.stream().map(EventLog.Entry::getPayload).collect(Collectors.toList());
+    }
+
+    @Before
+    public void init() throws Exception {
+        file = folder.getRoot().toPath().resolve("events.log");
+        log = new EventLog(file);
+        log.replay();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        log.close();
+    }
+
+    @Test
+    public void testPendingEntriesReplayed() throws Exception {
+        log.append("patchset-created:1:1", "first");
+        final EventLog.Entry done = log.append("patchset-created:2:1", "second");
+        log.append("patchset-created:3:1", "third");
+        log.markDone(done);
+        log.close();
+
+        final EventLog restarted = new EventLog(file);
+        assertEquals(ImmutableList.of("first", "third"), payloads(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    public void testEntriesWithSameKeyReplayedOnce() throws Exception {
+        log.append("comment-added:1:1", "first vote");
+        log.append("patchset-created:2:1", "created");
+        log.append("comment-added:1:1", "second vote");
+        log.close();
+
+        final EventLog restarted = new EventLog(file);
+        assertEquals(ImmutableList.of("created", "second vote"), payloads(restarted.replay()));
+        restarted.close();
+    }
+
+    @Test
+    public void testLogTrimmedWhenNothingPending() throws Exception {
+        final EventLog.Entry first = log.append("patchset-created:1:1", "first");
+        final EventLog.Entry second = log.append("patchset-created:2:1", "second");
+        log.markDone(first);
+        assertTrue(Files.size(file) > 0);
+
+        log.markDone(second);
+        assertEquals(0, Files.size(file));
+        assertEquals(0, log.getPendingCount());
+    }
+
+    @Test
+    public void testIncompleteLineSkipped() throws Exception {
+        log.append("patchset-created:1:1", "first");
+        log.close();
+        // crash in the middle of write
+        Files.write(file, "+2\tpatchset-cre".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        final EventLog restarted = new EventLog(file);
+        assertEquals(ImmutableList.of("first"), payloads(restarted.replay()));
+        // ids are not reused after replay
+        restarted.append("patchset-created:3:1", "third");
+        restarted.close();
+        final EventLog replayedAgain = new EventLog(file);
+        assertEquals(ImmutableList.of("first", "third"), payloads(replayedAgain.replay()));
+        replayedAgain.close();
+    }
+}
@@ -0,0 +1,60 @@
+package io.fd.maintainer.plugin.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.google.common.base.Suppliers;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.data.AccountAttribute;
+import com.google.gerrit.server.data.ApprovalAttribute;
+import com.google.gerrit.server.data.ChangeAttribute;
+import com.google.gerrit.server.data.PatchSetAttribute;
+import com.google.gerrit.server.events.CommentAddedEvent;
+import java.sql.Timestamp;
+import org.junit.Test;
+
+public class EventQueueTest {
+
+    private static ApprovalAttribute approval(final String type, final String value) {
+        final ApprovalAttribute approval = new ApprovalAttribute();
+        approval.type = type;
+        approval.value = value;
+        return approval;
+    }
+
+    private static CommentAddedEvent comment(final String author, final ApprovalAttribute... approvals) {
+        final CommentAddedEvent event = new CommentAddedEvent(new Change(new Change.Key("I7"), new Change.Id(7),
+                new Account.Id(1), new Branch.NameKey(new Project.NameKey("vpp"), "refs/heads/master"),
+                new Timestamp(0)));
+        final ChangeAttribute change = new ChangeAttribute();
+        change.project = "vpp";
+        change.number = 7;
+        final PatchSetAttribute patchSet = new PatchSetAttribute();
+        patchSet.number = 2;
+        final AccountAttribute account = new AccountAttribute();
+        account.username = author;
+        event.change = Suppliers.ofInstance(change);
+        event.patchSet = Suppliers.ofInstance(patchSet);
+        event.author = Suppliers.ofInstance(account);
+        event.approvals = Suppliers.ofInstance(approvals);
+        return event;
+    }
+
+    @Test
+    public void testCommentWithDifferentVoteNotReplaced() {
+        // plain comment after +1 must not replace the +1 in log of pending events
+        assertNotEquals(EventQueue.eventKey(comment("dave", approval("Code-Review", "1"))),
+                EventQueue.eventKey(comment("dave", approval("Code-Review", "0"))));
+        assertNotEquals(EventQueue.eventKey(comment("dave", approval("Code-Review", "1"))),
+                EventQueue.eventKey(comment("damjan", approval("Code-Review", "1"))));
+    }
+
+    @Test
+    public void testSameCommentReplaced() {
+        assertEquals(EventQueue.eventKey(comment("dave", approval("Verified", "1"), approval("Code-Review", "1"))),
+                EventQueue.eventKey(comment("dave", approval("Code-Review", "1"), approval("Verified", "1"))));
+    }
+}
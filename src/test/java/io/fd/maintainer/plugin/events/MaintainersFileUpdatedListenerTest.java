@@ -0,0 +1,127 @@
+package io.fd.maintainer.plugin.events;
+
+import static io.fd.maintainer.plugin.util.TestRepositories.blobId;
+import static io.fd.maintainer.plugin.util.TestRepositories.commit;
+import static io.fd.maintainer.plugin.util.TestRepositories.setRef;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.extensions.events.GitReferenceUpdatedListener;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.inject.Guice;
+import io.fd.maintainer.plugin.service.MaintainersProvider;
+import io.fd.maintainer.plugin.service.OpenChangesReevaluator;
+import io.fd.maintainer.plugin.service.SettingsProvider;
+import io.fd.maintainer.plugin.service.TestSettingsProviders;
+import io.fd.maintainer.plugin.util.TestRepositories;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class MaintainersFileUpdatedListenerTest {
+
+    private static final Project.NameKey PROJECT = new Project.NameKey("vpp");
+    private static final String MASTER = "refs/heads/master";
+    private static final String STABLE = "refs/heads/stable/1707";
+
+    @Mock
+    private GitRepositoryManager manager;
+
+    @Mock
+    private MaintainersProvider maintainersProvider;
+
+    @Mock
+    private OpenChangesReevaluator reevaluator;
+
+    @Mock
+    private GitReferenceUpdatedListener.Event event;
+
+    private InMemoryRepository repository;
+    private RevCommit base;
+    private MaintainersFileUpdatedListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        // master reads MAINTAINERS from itself, stable reads docs/MAINTAINERS from itself
+        final Config config = new Config();
+        config.setString("branch", MASTER, "pluginuser", "vppmaintainerplugin");
+        config.setString("branch", MASTER, "autoaddreviewers", "true");
+        config.setString("branch", STABLE, "pluginuser", "vppmaintainerplugin");
+        config.setString("branch", STABLE, "autoaddreviewers", "true");
+        config.setString("branch", STABLE, "maintainerfile", "docs/MAINTAINERS");
+        final SettingsProvider settingsProvider = TestSettingsProviders.forProject(PROJECT, config);
+
+        repository = TestRepositories.create();
+        base = commit(repository, null, ImmutableMap.of("MAINTAINERS", "M: Dave Barach <dave@barachs.net>",
+                "docs/MAINTAINERS", "M: Damjan Marion <damarion@cisco.com>", "README.md", "vpp"));
+        setRef(repository, MASTER, base);
+        setRef(repository, STABLE, base);
+        when(manager.openRepository(PROJECT)).thenAnswer(invocation -> {
+            repository.incrementOpen();
+            return repository;
+        });
+
+        // bound by providers, as instances would get their own dependencies injected
+        listener = Guice.createInjector(binder -> {
+            binder.bind(SettingsProvider.class).toProvider(() -> settingsProvider);
+            binder.bind(GitRepositoryManager.class).toProvider(() -> manager);
+            binder.bind(MaintainersProvider.class).toProvider(() -> maintainersProvider);
+            binder.bind(OpenChangesReevaluator.class).toProvider(() -> reevaluator);
+        }).getInstance(MaintainersFileUpdatedListener.class);
+    }
+
+    private void update(final String refName, final RevCommit newTip) throws Exception {
+        setRef(repository, refName, newTip);
+        when(event.getProjectName()).thenReturn(PROJECT.get());
+        when(event.getRefName()).thenReturn(refName);
+        when(event.getOldObjectId()).thenReturn(base.getName());
+        when(event.getNewObjectId()).thenReturn(newTip.getName());
+        listener.onGitReferenceUpdated(event);
+    }
+
+    @Test
+    public void testReadersOfUpdatedFileReevaluated() throws Exception {
+        final String maintainers = "M: Damjan Marion <damarion@cisco.com>";
+        update(MASTER, commit(repository, base, ImmutableMap.of("MAINTAINERS", maintainers,
+                "docs/MAINTAINERS", "M: Damjan Marion <damarion@cisco.com>", "README.md", "vpp")));
+
+        verify(maintainersProvider).useFileOfRefTip(eq(PROJECT), eq(MASTER), eq("MAINTAINERS"),
+                any(Repository.class), any(ObjectId.class), eq(blobId(maintainers)));
+        verify(reevaluator).reevaluate(new Branch.NameKey(PROJECT, MASTER));
+        // stable reads its file from itself
+        verify(reevaluator, never()).reevaluate(new Branch.NameKey(PROJECT, STABLE));
+    }
+
+    @Test
+    public void testFileNotReadFromUpdatedRefIgnored() throws Exception {
+        // file of stable changed in master, which stable does not read from
+        update(MASTER, commit(repository, base, ImmutableMap.of("MAINTAINERS", "M: Dave Barach <dave@barachs.net>",
+                "docs/MAINTAINERS", "M: Dave Barach <dave@barachs.net>", "README.md", "vpp")));
+
+        verify(maintainersProvider, never()).useFileOfRefTip(any(), anyString(), anyString(), any(), any(), any());
+        verify(reevaluator, never()).reevaluate(any());
+    }
+
+    @Test
+    public void testUnchangedFileIgnored() throws Exception {
+        update(STABLE, commit(repository, base, ImmutableMap.of("MAINTAINERS", "M: Dave Barach <dave@barachs.net>",
+                "docs/MAINTAINERS", "M: Damjan Marion <damarion@cisco.com>", "README.md", "vpp 17.07")));
+
+        verify(maintainersProvider, never()).useFileOfRefTip(any(), anyString(), anyString(), any(), any(), any());
+        verify(reevaluator, never()).reevaluate(any());
+    }
+}
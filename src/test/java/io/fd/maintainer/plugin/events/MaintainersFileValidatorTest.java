@@ -0,0 +1,142 @@
+package io.fd.maintainer.plugin.events;
+
+import static io.fd.maintainer.plugin.util.TestRepositories.commit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.server.AccountAccess;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.events.CommitReceivedEvent;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.validators.CommitValidationException;
+import com.google.gerrit.server.git.validators.CommitValidationMessage;
+import com.google.gwtorm.server.ListResultSet;
+import com.google.gwtorm.server.OrmException;
+import com.google.gwtorm.server.SchemaFactory;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+import io.fd.maintainer.plugin.service.SettingsProvider;
+import io.fd.maintainer.plugin.service.TestSettingsProviders;
+import io.fd.maintainer.plugin.util.TestRepositories;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class MaintainersFileValidatorTest {
+
+    private static final Project.NameKey PROJECT = new Project.NameKey("vpp");
+    private static final String MASTER = "refs/heads/master";
+    private static final String VALID = String.join("\n",
+            "-----",
+            "VLIB Library",
+            "M:\tDave Barach <dave@barachs.net>",
+            "F:\tsrc/vlib/");
+    private static final String INVALID = String.join("\n",
+            "-----",
+            "VLIB Library",
+            "M:\tDave Barach dave@barachs.net",
+            "F:\tsrc/vlib/");
+
+    @Mock
+    private GitRepositoryManager manager;
+
+    @Mock
+    private SchemaFactory<ReviewDb> schemaFactory;
+
+    @Mock
+    private ReviewDb reviewDb;
+
+    @Mock
+    private AccountAccess accounts;
+
+    private InMemoryRepository repository;
+    private MaintainersFileValidator validator;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        final Config config = new Config();
+        config.setString("branch", MASTER, "pluginuser", "vppmaintainerplugin");
+        final SettingsProvider settingsProvider = TestSettingsProviders.forProject(PROJECT, config);
+
+        repository = TestRepositories.create();
+        when(manager.openRepository(PROJECT)).thenAnswer(invocation -> {
+            repository.incrementOpen();
+            return repository;
+        });
+        when(schemaFactory.open()).thenReturn(reviewDb);
+        when(reviewDb.accounts()).thenReturn(accounts);
+        when(accounts.byFullName(anyString())).thenReturn(new ListResultSet<>(ImmutableList.of()));
+        when(accounts.byPreferredEmail(anyString())).thenReturn(new ListResultSet<>(ImmutableList.of()));
+
+        // maintainers provider is real one, so that file is really parsed
+        validator = Guice.createInjector(binder -> {
+            binder.bind(SettingsProvider.class).toProvider(() -> settingsProvider);
+            binder.bind(GitRepositoryManager.class).toProvider(() -> manager);
+            binder.bind(new TypeLiteral<SchemaFactory<ReviewDb>>() {
+            }).toProvider(() -> schemaFactory);
+        }).getInstance(MaintainersFileValidator.class);
+    }
+
+    private static CommitReceivedEvent received(final RevCommit commit) {
+        return new CommitReceivedEvent(null, new Project(PROJECT), MASTER, commit, null);
+    }
+
+    private RevCommit changeOf(final String before, final String after) throws Exception {
+        final RevCommit parent = commit(repository, null, ImmutableMap.of("MAINTAINERS", before, "README.md", "vpp"));
+        return commit(repository, parent, ImmutableMap.of("MAINTAINERS", after, "README.md", "vpp"));
+    }
+
+    @Test
+    public void testValidFileAccepted() throws Exception {
+        assertTrue(validator.onCommitReceived(received(changeOf(VALID, VALID.replace("src/vlib/", "src/vlib/*"))))
+                .isEmpty());
+    }
+
+    @Test
+    public void testInvalidFileRejected() throws Exception {
+        try {
+            validator.onCommitReceived(received(changeOf(VALID, INVALID)));
+            fail("Invalid maintainers file expected");
+        } catch (CommitValidationException e) {
+            assertEquals(1, e.getMessages().size());
+            final CommitValidationMessage message = e.getMessages().get(0);
+            assertTrue(message.isError());
+            assertTrue(message.getMessage().startsWith("MAINTAINERS: Line 3: "));
+        }
+    }
+
+    @Test
+    public void testUnchangedFileNotValidated() throws Exception {
+        // file is invalid already in parent, commit does not touch it
+        final RevCommit parent = commit(repository, null, ImmutableMap.of("MAINTAINERS", INVALID, "README.md", "vpp"));
+        final RevCommit commit = commit(repository, parent, ImmutableMap.of("MAINTAINERS", INVALID,
+                "README.md", "vpp 17.07"));
+
+        assertTrue(validator.onCommitReceived(received(commit)).isEmpty());
+    }
+
+    @Test
+    public void testValidationSkippedOnFailure() throws Exception {
+        // accounts of maintainers can not be resolved
+        when(accounts.byFullName(anyString())).thenThrow(new OrmException("database down"));
+        assertTrue(validator.onCommitReceived(received(changeOf(VALID, VALID.replace("src/vlib/", "src/vlib/*"))))
+                .isEmpty());
+
+        // repository can not be read
+        final RevCommit commit = changeOf(VALID, INVALID);
+        when(manager.openRepository(PROJECT)).thenThrow(new RepositoryNotFoundException("vpp"));
+        assertTrue(validator.onCommitReceived(received(commit)).isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package io.fd.maintainer.plugin.parser;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ComponentPathMatcherTest {
+
+    private static ComponentPathMatcher matcher(final String... paths) {
+        final List<ComponentPath> componentPaths = new ArrayList<>();
+        for (String path : paths) {
+            componentPaths.add(new ComponentPath(path));
+        }
+        return new ComponentPathMatcher(componentPaths);
+    }
+
+    @Test
+    public void testMayMatchFirstSegment() {
+        final ComponentPathMatcher matcher = matcher("src/vlib/", "Makefile", "[bd]*/");
+        assertTrue(matcher.mayMatch("src/vnet/ip/ip4.c"));
+        assertTrue(matcher.mayMatch("Makefile"));
+        assertTrue(matcher.mayMatch("build-root/Makefile"));
+        assertFalse(matcher.mayMatch("test/test_ip4.py"));
+        assertFalse(matcher.mayMatch("README.md"));
+    }
+
+    @Test
+    public void testMayMatchExtension() {
+        final ComponentPathMatcher matcher = matcher("src/vlib/", "*.mk");
+        assertTrue(matcher.mayMatch("build-data/platforms/vpp.mk"));
+        assertFalse(matcher.mayMatch("build-data/platforms/vpp.py"));
+    }
+
+    @Test
+    public void testMayMatchUnconstrained() {
+        assertTrue(matcher("src/vlib/", "**/test/").mayMatch("README.md"));
+        assertTrue(matcher("*").mayMatch("README.md"));
+    }
+
+    @Test
+    public void testMatchReportsAllPaths() {
+        final List<Integer> matched = new ArrayList<>();
+        matcher("src/vlib/", "src/*.c", "test/")
+                .match("src/vlib/main.c", (pathIndex, level) -> matched.add(pathIndex));
+        assertTrue(matched.containsAll(ImmutableList.of(0, 1)));
+        assertFalse(matched.contains(2));
+    }
+}
@@ -86,4 +86,71 @@ public class ComponentPathTest {
         final ComponentPath base = new ComponentPath("*/");
         Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("lisp/new-file"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMatchPartialLower() {
+        final ComponentPath base = new ComponentPath("src/vlib/");
+        Assert.assertEquals(ComponentPath.MatchLevel.PARTIAL, base.matchAgainst("src/vlib/unix/main.c"));
+    }
+
+    @Test
+    public void testMatchNoneShorterPath() {
+        final ComponentPath base = new ComponentPath("src/vlib/unix");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vlib"));
+    }
+
+    @Test
+    public void testMatchNoneSubstring() {
+        final ComponentPath base = new ComponentPath("vlib/*");
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vlib/main.c"));
+    }
+
+    @Test
+    public void testMatchAnyDirectories() {
+        final ComponentPath base = new ComponentPath("src/**/test/*.py");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION,
+                base.matchAgainst("src/test/test_ip.py"));
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION,
+                base.matchAgainst("src/plugins/acl/test/test_acl.py"));
+        // ** makes depth explicit, so files below test/ do not match
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/test/util/vpp.py"));
+    }
+
+    @Test
+    public void testMatchAnyDirectoriesTrailing() {
+        final ComponentPath base = new ComponentPath("src/plugins/**");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("src/plugins/acl/acl.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/plugins"));
+    }
+
+    @Test
+    public void testMatchSingleCharacter() {
+        final ComponentPath base = new ComponentPath("src/vnet/ip/ip?.c");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION,
+                base.matchAgainst("src/vnet/ip/ip4.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/ip/ip46.c"));
+    }
+
+    @Test
+    public void testMatchCharacterClass() {
+        final ComponentPath base = new ComponentPath("src/vnet/ip/ip[46]_*.c");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_WITH_EXTENSION,
+                base.matchAgainst("src/vnet/ip/ip6_forward.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/vnet/ip/ip5_forward.c"));
+    }
+
+    @Test
+    public void testMatchCharacterRangeNegated() {
+        final ComponentPath base = new ComponentPath("src/[!a-m]*/");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY, base.matchAgainst("src/vlib/main.c"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/cmake/main.c"));
+    }
+
+    @Test
+    public void testMatchGlobInMiddleSegment() {
+        final ComponentPath base = new ComponentPath("src/plugins/*/test/");
+        Assert.assertEquals(ComponentPath.MatchLevel.WILDCARD_ONLY,
+                base.matchAgainst("src/plugins/acl/test/test_acl.py"));
+        Assert.assertEquals(ComponentPath.MatchLevel.NONE, base.matchAgainst("src/plugins/acl/acl.c"));
+    }
+}
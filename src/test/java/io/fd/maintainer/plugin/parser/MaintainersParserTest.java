@@ -19,11 +19,16 @@ package io.fd.maintainer.plugin.parser;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.common.io.Files;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -102,15 +107,17 @@ public class MaintainersParserTest {
                 .createMaintainer();
     }
 
+    private static String maintainersContent() throws URISyntaxException, IOException {
+        final URL url = MaintainersParserTest.class.getResource("/maintainers");
+        return Files.readLines(new File(url.toURI()), StandardCharsets.UTF_8).stream()
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
     @Test
     public void testParse() throws URISyntaxException, IOException, MaintainerMismatchException {
         final MaintainersParser parser = new MaintainersParser();
 
-        final URL url = this.getClass().getResource("/maintainers");
-        final String content =
-                Files.readLines(new File(url.toURI()), StandardCharsets.UTF_8).stream()
-                        .collect(Collectors.joining(System.lineSeparator()));
-        final List<ComponentInfo> maintainers = parser.parseMaintainers(content);
+        final List<ComponentInfo> maintainers = parser.parseMaintainers(maintainersContent());
         assertTrue(!maintainers.isEmpty());
 
         // tests couple of entries
@@ -125,6 +132,149 @@ public class MaintainersParserTest {
         assertEquals(32, maintainers.size());
     }
 
+    @Test
+    public void testParseExcludedPaths() throws MaintainerMismatchException {
+        final String content = String.join(System.lineSeparator(),
+                "-----",
+                "VLIB Library",
+                "M:\tDave Barach <dave@barachs.net>",
+                "F:\tsrc/vlib/",
+                "X:\tsrc/vlib/**/test_*.c");
+
+        final ComponentInfo component = new MaintainersParser().parseMaintainers(content).get(0);
+        assertEquals(of(p("src/vlib/")), component.getPaths());
+        assertEquals(of(p("src/vlib/**/test_*.c")), component.getExcludedPaths());
+    }
+
+    @Test
+    public void testUnchangedBlocksReused() throws URISyntaxException, IOException, MaintainerMismatchException {
+        final MaintainersParser parser = new MaintainersParser();
+        final String content = maintainersContent();
+        final MaintainersFile previous = parser.parse(content, null);
+        assertEquals(0, previous.getReusedBlocks());
+
+        final MaintainersFile next = parser.parse(content.replace("F:\tdoxygen/", "F:\tdoxygen/\nF:\tdocs/"),
+                previous);
+        assertEquals(31, next.getReusedBlocks());
+        assertSame(previous.getComponents().get(1), next.getComponents().get(1));
+        assertNotSame(previous.getComponents().get(2), next.getComponents().get(2));
+        assertTrue(compare(next.getComponents().get(2), componentNoComment("Doxygen",
+                of(m("Chris Luke", "chrisy@flirble.org")), of(p("doxygen/"), p("docs/")))));
+    }
+
+    @Test
+    public void testParseInDirectory() throws MaintainerMismatchException {
+        final String content = String.join(System.lineSeparator(),
+                "-----",
+                "Plugin - ACL",
+                "M:\tAndrew Yourtchenko <ayourtch@gmail.com>",
+                "F:\tacl/",
+                "X:\tacl/*.md");
+
+        final ComponentInfo component = new MaintainersParser().parse(content, null, "src/plugins")
+                .getComponents().get(0);
+        assertEquals(of(p("src/plugins/acl/")), component.getPaths());
+        assertEquals(of(p("src/plugins/acl/*.md")), component.getExcludedPaths());
+    }
+
+    @Test
+    public void testParseUtf8Stream() throws IOException, MaintainerMismatchException {
+        final byte[] content = String.join("\n",
+                "-----",
+                "VNET IPSec",
+                "M:\tSergio Gonz\u00e1lez Monroy <sgonzalezmonroy@gmail.com>",
+                "F:\tsrc/vnet/ipsec/").getBytes(StandardCharsets.UTF_8);
+
+        final MaintainersFile file = new MaintainersParser().parse(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8), null, "");
+        assertEquals(1, file.getComponents().size());
+        assertEquals(of(m("Sergio Gonz\u00e1lez Monroy", "sgonzalezmonroy@gmail.com")),
+                file.getComponents().get(0).getMaintainers());
+    }
+
+    @Test
+    public void testInvalidMaintainerLine() {
+        final String content = String.join(System.lineSeparator(),
+                "Header",
+                "-----",
+                "",
+                "VLIB Library",
+                "M:\tDave Barach dave@barachs.net",
+                "F:\tsrc/vlib/");
+
+        try {
+            new MaintainersParser().parseMaintainers(content);
+            fail("Invalid maintainer expected");
+        } catch (MaintainerMismatchException e) {
+            assertEquals(5, e.getLine());
+            assertTrue(e.getMessage().startsWith("Line 5: "));
+        }
+    }
+
+    @Test
+    public void testMultipleTitlesLine() {
+        final String content = String.join(System.lineSeparator(),
+                "-----",
+                "VLIB Library",
+                "M:\tDave Barach <dave@barachs.net>",
+                "VLIB Library 2",
+                "F:\tsrc/vlib/");
+
+        try {
+            new MaintainersParser().parseMaintainers(content);
+            fail("Multiple titles expected");
+        } catch (MaintainerMismatchException e) {
+            assertEquals(4, e.getLine());
+        }
+    }
+
+    @Test
+    public void testIncompleteBlockLine() {
+        final String content = String.join(System.lineSeparator(),
+                "-----",
+                "VLIB Library",
+                "M:\tDave Barach <dave@barachs.net>",
+                "F:\tsrc/vlib/",
+                "",
+                "Orphan",
+                "F:\tsrc/orphan/");
+
+        try {
+            new MaintainersParser().parseMaintainers(content);
+            fail("Incomplete block expected");
+        } catch (MaintainerMismatchException e) {
+            assertEquals(6, e.getLine());
+        }
+    }
+
+    @Test
+    public void testParsedValuesShared() throws URISyntaxException, IOException, MaintainerMismatchException {
+        final MaintainersParser parser = new MaintainersParser();
+        final String content = maintainersContent();
+
+        final ComponentInfo first = parser.parseMaintainers(content).get(5);
+        final ComponentInfo second = parser.parseMaintainers(content).get(5);
+
+        assertSame(first.getTitle(), second.getTitle());
+        final Maintainer firstMaintainer = first.getMaintainers().iterator().next();
+        assertSame(firstMaintainer, second.getMaintainers().stream()
+                .filter(firstMaintainer::equals)
+                .findFirst()
+                .orElseThrow(AssertionError::new));
+        assertSame(first.getPaths().iterator().next(), second.getPaths().iterator().next());
+
+        // same maintainer is shared across components
+        final Maintainer dave = m("Dave Barach", "dave@barachs.net");
+        assertSame(findMaintainer(first, dave), findMaintainer(parser.parseMaintainers(content).get(4), dave));
+    }
+
+    private static Maintainer findMaintainer(final ComponentInfo component, final Maintainer maintainer) {
+        return component.getMaintainers().stream()
+                .filter(maintainer::equals)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
     private boolean compare(final ComponentInfo first, final ComponentInfo second) {
         return new EqualsBuilder()
                 .append(first.getTitle(), second.getTitle())
@@ -0,0 +1,41 @@
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.reviewdb.client.Change;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import org.junit.Test;
+
+public class ChangeLocksTest {
+
+    private final ChangeLocks changeLocks = new ChangeLocks();
+
+    @Test
+    public void testSameLockForSameChange() {
+        assertSame(changeLocks.forChange(new Change.Id(1)), changeLocks.forChange(new Change.Id(1)));
+    }
+
+    @Test
+    public void testChangeLockedForOtherThreads() throws Exception {
+        final Lock lock = changeLocks.forChange(new Change.Id(1));
+        lock.lock();
+        try {
+            assertFalse(CompletableFuture.supplyAsync(() -> tryLock(new Change.Id(1))).get());
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(CompletableFuture.supplyAsync(() -> tryLock(new Change.Id(1))).get());
+    }
+
+    private boolean tryLock(final Change.Id changeId) {
+        final Lock lock = changeLocks.forChange(changeId);
+        if (lock.tryLock()) {
+            lock.unlock();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeadlineTest {
+
+    private long time;
+    private Ticker ticker;
+
+    @Before
+    public void init() {
+        time = 0;
+        ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time;
+            }
+        };
+    }
+
+    @Test
+    public void testNotPositiveTimeoutMeansNoDeadline() {
+        assertSame(Deadline.NONE, Deadline.after(0, TimeUnit.SECONDS));
+        assertSame(Deadline.NONE, Deadline.after(-1, TimeUnit.SECONDS));
+        assertFalse(Deadline.NONE.isExpired());
+    }
+
+    @Test
+    public void testExpiresAfterTimeout() {
+        final Deadline deadline = new Deadline(TimeUnit.SECONDS.toNanos(2), ticker);
+        time = TimeUnit.SECONDS.toNanos(1);
+        assertFalse(deadline.isExpired());
+        deadline.check("matching");
+
+        time = TimeUnit.SECONDS.toNanos(2);
+        assertTrue(deadline.isExpired());
+        try {
+            deadline.check("matching");
+            fail("Deadline should be exceeded");
+        } catch (DeadlineExceededException e) {
+            assertEquals("matching", e.getStage());
+        }
+    }
+
+    @Test
+    public void testTickerOverflow() {
+        time = Long.MAX_VALUE - 1;
+        final Deadline deadline = new Deadline(10, ticker);
+        time = Long.MIN_VALUE + 5;
+        assertFalse(deadline.isExpired());
+        time = Long.MIN_VALUE + 10;
+        assertTrue(deadline.isExpired());
+    }
+}
@@ -0,0 +1,131 @@
+package io.fd.maintainer.plugin.service;
+
+import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_NOT_FOUND;
+import static io.fd.maintainer.plugin.util.TestRepositories.commit;
+import static io.fd.maintainer.plugin.util.TestRepositories.setRef;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.server.AccountAccess;
+import com.google.gerrit.reviewdb.server.ChangeAccess;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gwtorm.server.ListResultSet;
+import com.google.gwtorm.server.SchemaFactory;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import io.fd.maintainer.plugin.util.TestRepositories;
+import java.sql.Timestamp;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class MaintainersProviderTest {
+
+    private static final Project.NameKey PROJECT = new Project.NameKey("vpp");
+    private static final String MASTER = "refs/heads/master";
+
+    @Mock
+    private GitRepositoryManager manager;
+
+    @Mock
+    private SchemaFactory<ReviewDb> schemaFactory;
+
+    @Mock
+    private ReviewDb reviewDb;
+
+    @Mock
+    private ChangeAccess changes;
+
+    @Mock
+    private AccountAccess accounts;
+
+    private MaintainersProvider maintainersProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        final Config config = new Config();
+        config.setString("branch", MASTER, "pluginuser", "vppmaintainerplugin");
+        config.setString("branch", MASTER, "maintainersshards", "true");
+        final SettingsProvider settingsProvider = TestSettingsProviders.forProject(PROJECT, config);
+
+        final InMemoryRepository repository = TestRepositories.create();
+        final RevCommit files = commit(repository, null, ImmutableMap.of(
+                "MAINTAINERS", String.join("\n",
+                        "-----",
+                        "VLIB Library",
+                        "M:\tDave Barach <dave@barachs.net>",
+                        "F:\tsrc/vlib/"),
+                "drivers/MAINTAINERS", String.join("\n",
+                        "-----",
+                        "DPDK Drivers",
+                        "M:\tDamjan Marion <damarion@cisco.com>",
+                        "F:\tdpdk/")));
+        // history of maintainers file is searched from parent of branch tip
+        setRef(repository, MASTER, commit(repository, files, ImmutableMap.of("README.md", "vpp")));
+        when(manager.openRepository(PROJECT)).thenAnswer(invocation -> {
+            repository.incrementOpen();
+            return repository;
+        });
+
+        when(schemaFactory.open()).thenReturn(reviewDb);
+        when(reviewDb.changes()).thenReturn(changes);
+        when(changes.get(any(Change.Id.class))).thenReturn(new Change(new Change.Key("I1"), new Change.Id(1),
+                new Account.Id(1), new Branch.NameKey(PROJECT, MASTER), new Timestamp(0)));
+        when(reviewDb.accounts()).thenReturn(accounts);
+        when(accounts.byFullName(anyString())).thenAnswer(invocation -> new ListResultSet<>(ImmutableList.of()));
+        when(accounts.byPreferredEmail(anyString())).thenAnswer(invocation -> new ListResultSet<>(ImmutableList.of()));
+
+        maintainersProvider = Guice.createInjector(binder -> {
+            binder.bind(SettingsProvider.class).toProvider(() -> settingsProvider);
+            binder.bind(GitRepositoryManager.class).toProvider(() -> manager);
+            binder.bind(new TypeLiteral<SchemaFactory<ReviewDb>>() {
+            }).toProvider(() -> schemaFactory);
+        }).getInstance(MaintainersProvider.class);
+    }
+
+    private MaintainersIndex indexFor(final String... affectedFiles) {
+        return maintainersProvider.getMaintainersIndex(MASTER, 1, PROJECT, ImmutableList.copyOf(affectedFiles),
+                Deadline.NONE);
+    }
+
+    @Test
+    public void testShardNotLoadedForOtherDirectories() {
+        final MaintainersIndex root = indexFor();
+
+        // no maintainers file in src/, so root index is used as is
+        assertSame(root, indexFor("src/vlib/main.c"));
+        assertEquals(COMPONENT_NOT_FOUND, root.getReviewInfoForPath("drivers/dpdk/main.c").getState());
+    }
+
+    @Test
+    public void testShardMergedForItsDirectory() {
+        final MaintainersIndex root = indexFor();
+        final MaintainersIndex sharded = indexFor("drivers/dpdk/main.c");
+
+        assertNotSame(root, sharded);
+        // paths of shard are relative to its directory
+        assertEquals("DPDK Drivers", sharded.getReviewInfoForPath("drivers/dpdk/main.c").getComponentName());
+        assertEquals(COMPONENT_NOT_FOUND, sharded.getReviewInfoForPath("dpdk/main.c").getState());
+        // components of root file are kept
+        assertEquals("VLIB Library", sharded.getReviewInfoForPath("src/vlib/main.c").getComponentName());
+        // merged index is reused for the same shards
+        assertSame(sharded, indexFor("drivers/dpdk/main.c", "drivers/dpdk/init.c"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.fd.maintainer.plugin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PatchListMatcherTest {
+
+    private PatchListMatcher matcher;
+
+    @Before
+    public void init() {
+        matcher = new PatchListMatcher(4);
+    }
+
+    @After
+    public void tearDown() {
+        matcher.stop();
+    }
+
+    private static List<String> files(final int count) {
+        return IntStream.range(0, count).mapToObj(i -> "src/file" + i + ".c").collect(Collectors.toList());
+    }
+
+    @Test
+    public void testBelowThresholdMatchedOnCallerThread() {
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final List<Integer> result = matcher.match(files(100), file -> {
+            threads.add(Thread.currentThread().getName());
+            return file.length();
+        }, 1000);
+
+        assertEquals(100, result.size());
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testAboveThresholdMatchedOnDedicatedPool() {
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final List<String> files = files(20000);
+        final List<String> result = matcher.match(files, file -> {
+            threads.add(Thread.currentThread().getName());
+            return file.toUpperCase();
+        }, 1000);
+
+        // results are merged in order of input
+        assertEquals(files.stream().map(String::toUpperCase).collect(Collectors.toList()), result);
+        assertTrue(threads.stream().allMatch(thread -> thread.startsWith("maintainer-matcher-")));
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void testExpiredDeadlineStopsParallelMatching() {
+        final AtomicLong time = new AtomicLong();
+        final Deadline deadline = new Deadline(100, new Ticker() {
+            @Override
+            public long read() {
+                return time.incrementAndGet();
+            }
+        });
+        matcher.match(files(20000), String::toUpperCase, 1000, deadline);
+    }
+}
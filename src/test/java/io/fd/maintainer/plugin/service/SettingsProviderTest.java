@@ -1,15 +1,23 @@
 package io.fd.maintainer.plugin.service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.gerrit.reviewdb.client.Project;
 import com.google.gerrit.server.config.PluginConfigFactory;
 import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import java.util.List;
+import java.util.Optional;
 import org.eclipse.jgit.lib.Config;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import static io.fd.maintainer.plugin.service.SettingsProvider.MAINTAINER_PLUGIN;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 public class SettingsProviderTest {
@@ -40,8 +48,11 @@ public class SettingsProviderTest {
         config.setString("branch", "refs/heads/master", "allowmaintainersubmit", "false");
         config.setString("branch", "refs/heads/master", "autosubmit", "false");
         config.setString("branch", "refs/heads/master", "dislikewarnings", "false");
+        config.setString("branch", "refs/heads/master", "maintainersproject", "governance");
+        config.setStringList("branch", "refs/heads/master", "ignorepaths",
+                ImmutableList.of("vendor/", "**/*.lock"));
 
-        when(cfg.getProjectPluginConfig(new Project.NameKey("vpp"), "maintainer")).thenReturn(config);
+        when(cfg.getProjectPluginConfig(new Project.NameKey("vpp"), MAINTAINER_PLUGIN)).thenReturn(config);
         provider = new SettingsProvider(cfg);
     }
 
@@ -54,4 +65,61 @@ public class SettingsProviderTest {
         assertFalse(settings.isDislikeWarnings());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getPluginUserOfExactBranch() throws Exception {
+        // closest match of refs/heads/master is master, that has no plugin user configured
+        assertEquals("vppmaintainerplugin", provider.getBranchSpecificSettings("refs/heads/master",
+                new Project.NameKey("vpp")).getPluginUserName());
+    }
+
+    @Test
+    public void getIgnoredPaths() throws Exception {
+        PluginBranchSpecificSettings settings =
+                provider.getBranchSpecificSettings("refs/heads/master", new Project.NameKey("vpp"));
+        assertTrue(settings.getIgnoredPaths().isIgnored("vendor/github.com/lib/lib.go"));
+        assertTrue(settings.getIgnoredPaths().isIgnored("src/vpp-api/python/Pipfile.lock"));
+        assertFalse(settings.getIgnoredPaths().isIgnored("src/vlib/main.c"));
+
+        // patterns are compiled only once
+        assertSame(settings.getIgnoredPaths(), provider.getBranchSpecificSettings("refs/heads/master",
+                new Project.NameKey("vpp")).getIgnoredPaths());
+    }
+
+    @Test
+    public void getMaintainersProject() throws Exception {
+        PluginBranchSpecificSettings settings =
+                provider.getBranchSpecificSettings("refs/heads/master", new Project.NameKey("vpp"));
+        assertEquals(Optional.of("governance"), settings.getMaintainersProject());
+        assertEquals("refs/heads/master", settings.getMaintainersProjectRef());
+
+        assertFalse(provider.getBranchSpecificSettings("refs/for/stable/1707", new Project.NameKey("vpp"))
+                .getMaintainersProject().isPresent());
+    }
+
+    @Test
+    public void getMaintainersFilePaths() throws Exception {
+        // default path is included, even if no branch uses it
+        assertEquals(ImmutableSet.of("MAINTAINERS", "MAINTAINER"),
+                provider.getMaintainersFilePaths(new Project.NameKey("vpp")));
+    }
+
+    @Test
+    public void getReadersOfFileRef() throws Exception {
+        Config config = new Config();
+        config.setString("branch", "refs/heads/master", "pluginuser", "hc2vppmaintainerplugin");
+        config.setString("branch", "refs/heads/stable/1707", "pluginuser", "hc2vppmaintainerplugin");
+        when(cfg.getProjectPluginConfig(new Project.NameKey("hc2vpp"), MAINTAINER_PLUGIN)).thenReturn(config);
+        // dev has no settings of its own, nor similar branch has
+        final List<String> branches =
+                ImmutableList.of("refs/heads/master", "refs/heads/stable/1707", "refs/heads/dev");
+
+        assertEquals(ImmutableSet.of("refs/heads/master"),
+                provider.getReadersOfFileRef(branches, new Project.NameKey("hc2vpp"), "refs/heads/master").keySet());
+        assertEquals(ImmutableSet.of("refs/heads/stable/1707"),
+                provider.getReadersOfFileRef(branches, new Project.NameKey("hc2vpp"), "refs/heads/stable/1707")
+                        .keySet());
+        // branch using maintainers project
+        assertTrue(provider.getReadersOfFileRef(ImmutableList.of("refs/heads/master"), new Project.NameKey("vpp"),
+                "refs/heads/master").isEmpty());
+    }
+}
@@ -0,0 +1,25 @@
+package io.fd.maintainer.plugin.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.project.NoSuchProjectException;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Creates settings provider for tests outside of this package
+ */
+public final class TestSettingsProviders {
+
+    private TestSettingsProviders() {
+    }
+
+    public static SettingsProvider forProject(final Project.NameKey projectKey, final Config config)
+            throws NoSuchProjectException {
+        final PluginConfigFactory cfg = mock(PluginConfigFactory.class);
+        when(cfg.getProjectPluginConfig(projectKey, SettingsProvider.MAINTAINER_PLUGIN)).thenReturn(config);
+        return new SettingsProvider(cfg);
+    }
+}
@@ -0,0 +1,64 @@
+package io.fd.maintainer.plugin.service.push;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.extensions.api.changes.AddReviewerResult;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import com.google.gerrit.extensions.api.changes.ReviewResult;
+import com.google.gerrit.extensions.restapi.Response;
+import com.google.gerrit.reviewdb.client.Account;
+import io.fd.maintainer.plugin.util.CommonTasks;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class PatchsetReviewTest {
+
+    @Test
+    public void testEmptyReview() {
+        final PatchsetReview review = new PatchsetReview().addReviewers(ImmutableList.of()).addMessage("");
+        assertTrue(review.isEmpty());
+        assertNull(review.toReviewInput("maintainer-plugin").message);
+    }
+
+    @Test
+    public void testCombinedReview() {
+        final ReviewInput review = new PatchsetReview()
+                .addReviewers(ImmutableList.of(new Account.Id(1), new Account.Id(2)))
+                .addMessage("Component VLIB Library")
+                .addReviewers(ImmutableList.of(new Account.Id(1)))
+                .addMessage("File renamed")
+                .dislike()
+                .toReviewInput("maintainer-plugin");
+
+        assertEquals("Component VLIB Library" + CommonTasks.LINE_SEPARATOR + CommonTasks.LINE_SEPARATOR
+                + "File renamed", review.message);
+        assertEquals(ImmutableList.of("1", "2"),
+                review.reviewers.stream().map(reviewer -> reviewer.reviewer).collect(Collectors.toList()));
+        assertEquals(Short.valueOf((short) -1), review.labels.get("Code-Review"));
+        assertEquals("maintainer-plugin", review.onBehalfOf);
+    }
+
+    @Test
+    public void testRejectedReviewersRemoved() {
+        final ReviewResult result = new ReviewResult();
+        result.reviewers = ImmutableMap.of("1", new AddReviewerResult("1"),
+                "2", new AddReviewerResult("2", "Account 2 is inactive"));
+        final Set<String> rejected = ReviewerPusher.getRejectedReviewers(Response.withStatusCode(400, result));
+        assertEquals(ImmutableSet.of("2"), rejected);
+
+        final ReviewInput review = new PatchsetReview()
+                .addReviewers(ImmutableList.of(new Account.Id(1), new Account.Id(2)))
+                .addMessage("Component VLIB Library")
+                .removeReviewers(rejected)
+                .toReviewInput("maintainer-plugin");
+        assertEquals(ImmutableList.of("1"),
+                review.reviewers.stream().map(reviewer -> reviewer.reviewer).collect(Collectors.toList()));
+        assertEquals("Component VLIB Library", review.message);
+    }
+}
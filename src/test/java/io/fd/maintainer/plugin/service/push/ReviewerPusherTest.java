@@ -0,0 +1,131 @@
+package io.fd.maintainer.plugin.service.push;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.server.change.PostReview;
+import com.google.gerrit.server.patch.PatchList;
+import com.google.gerrit.server.patch.PatchListCache;
+import com.google.gerrit.server.patch.PatchListEntry;
+import com.google.inject.Provider;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.Deadline;
+import io.fd.maintainer.plugin.service.PatchListMatcher;
+import io.fd.maintainer.plugin.service.dto.PluginBranchSpecificSettings;
+import io.fd.maintainer.plugin.util.IgnoredPaths;
+import io.fd.maintainer.plugin.util.MaintainersIndex;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ReviewerPusherTest {
+
+    private static final Account.Id DAVE = new Account.Id(1);
+    private static final Account.Id DAMJAN = new Account.Id(2);
+    private static final Account.Id OWNER = new Account.Id(3);
+
+    @Mock
+    private PatchListCache patchListCache;
+
+    @Mock
+    private PatchListMatcher patchListMatcher;
+
+    @Mock
+    private Provider<PostReview> reviewProvider;
+
+    @InjectMocks
+    private ReviewerPusher reviewerPusher;
+
+    private MaintainersIndex index;
+    private PluginBranchSpecificSettings settings;
+
+    private static Change change(final Account.Id owner) {
+        return new Change(new Change.Key("I1"), new Change.Id(1), owner,
+                new Branch.NameKey(new Project.NameKey("vpp"), "refs/heads/master"), new Timestamp(0));
+    }
+
+    private static PatchSet patchSet(final Change change) {
+        return new PatchSet(new PatchSet.Id(change.getId(), 1));
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        final Maintainer dave = new Maintainer("Dave Barach", "dave@barachs.net");
+        final Maintainer damjan = new Maintainer("Damjan Marion", "damarion@cisco.com");
+        index = new MaintainersIndex(ImmutableList.of(new ComponentInfo.ComponentInfoBuilder()
+                        .setTitle("VLIB Library")
+                        .setMaintainers(of(dave, damjan))
+                        .setPaths(of(new ComponentPath("src/vlib/")))
+                        .createMaintainer()),
+                maintainer -> Optional.of(maintainer.equals(dave) ? DAVE : DAMJAN));
+        settings = new PluginBranchSpecificSettings.PluginSettingsBuilder()
+                .setPluginUserName("vppmaintainerplugin")
+                .setIgnoredPaths(IgnoredPaths.NONE)
+                .setParallelMatchingThreshold(10000)
+                .createPluginSettings();
+
+        // every change modifies single file of VLIB Library
+        final PatchListEntry entry = mock(PatchListEntry.class);
+        when(entry.getNewName()).thenReturn("src/vlib/main.c");
+        final PatchList patchList = mock(PatchList.class);
+        when(patchList.getPatches()).thenReturn(ImmutableList.of(entry));
+        when(patchListCache.get(any(Change.class), any(PatchSet.class))).thenReturn(patchList);
+        when(patchListMatcher.match(anyListOf(Object.class), any(Function.class), anyInt(), any(Deadline.class)))
+                .thenAnswer(invocation -> ((List<Object>) invocation.getArguments()[0]).stream()
+                        .map((Function<Object, Object>) invocation.getArguments()[1])
+                        .collect(Collectors.toList()));
+    }
+
+    private Set<Account.Id> addedReviewers(final Change change, final Set<Account.Id> currentReviewers) {
+        final PatchsetReview review = new PatchsetReview();
+        reviewerPusher.addRelevantReviewers(index, change, patchSet(change), currentReviewers, settings,
+                Deadline.NONE, review);
+        return review.getReviewers();
+    }
+
+    @Test
+    public void testAllMaintainersAdded() {
+        assertEquals(of(DAVE, DAMJAN), addedReviewers(change(OWNER), of()));
+    }
+
+    @Test
+    public void testCurrentReviewersAndOwnerNotAdded() {
+        assertEquals(of(DAVE), addedReviewers(change(OWNER), of(DAMJAN)));
+        assertEquals(of(DAMJAN), addedReviewers(change(DAVE), of()));
+        assertTrue(addedReviewers(change(DAVE), of(DAMJAN)).isEmpty());
+    }
+
+    @Test
+    public void testNothingPostedWithoutMissingReviewers() {
+        final Change change = change(DAVE);
+        assertEquals(0, reviewerPusher.addMissingReviewers(index, change, patchSet(change), of(DAMJAN), settings,
+                Deadline.NONE));
+        verify(reviewProvider, never()).get();
+    }
+}
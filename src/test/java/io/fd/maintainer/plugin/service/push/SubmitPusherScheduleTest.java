@@ -0,0 +1,181 @@
+package io.fd.maintainer.plugin.service.push;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.common.data.SubmitRecord;
+import com.google.gerrit.extensions.api.changes.SubmitInput;
+import com.google.gerrit.extensions.restapi.IdString;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Branch;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.Project;
+import com.google.gerrit.reviewdb.server.ReviewDb;
+import com.google.gerrit.server.change.ChangeResource;
+import com.google.gerrit.server.change.ChangesCollection;
+import com.google.gerrit.server.change.RevisionResource;
+import com.google.gerrit.server.change.Revisions;
+import com.google.gerrit.server.change.Submit;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.project.ChangeControl;
+import com.google.gerrit.server.project.SubmitRuleOptions;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gwtorm.server.SchemaFactory;
+import io.fd.maintainer.plugin.service.ChangeLocks;
+import java.sql.Timestamp;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+public class SubmitPusherScheduleTest {
+
+    @Mock
+    private Submit submitApi;
+
+    @Mock
+    private ChangesCollection changesCollection;
+
+    @Mock
+    private Revisions revisions;
+
+    @Mock
+    private SchemaFactory<ReviewDb> schemaFactory;
+
+    @Mock
+    private ChangeData.Factory changeDataFactory;
+
+    @Mock
+    private WorkQueue workQueue;
+
+    @Mock
+    private GitRepositoryManager manager;
+
+    @Spy
+    private ChangeLocks changeLocks = new ChangeLocks();
+
+    @Mock
+    private OneOffRequestContext requestContext;
+
+    @Mock
+    private WorkQueue.Executor executor;
+
+    @Mock
+    private ManualRequestContext context;
+
+    @Mock
+    private ChangeResource changeResource;
+
+    @Mock
+    private RevisionResource revisionResource;
+
+    @Mock
+    private ChangeData changeData;
+
+    @InjectMocks
+    private SubmitPusher submitPusher;
+
+    private Change change;
+
+    private Change otherChange;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        change = new Change(new Change.Key("I1"), new Change.Id(1), new Account.Id(1),
+                new Branch.NameKey(new Project.NameKey("vpp"), "refs/heads/master"), new Timestamp(0));
+
+        otherChange = new Change(new Change.Key("I2"), new Change.Id(2), new Account.Id(1), change.getDest(),
+                new Timestamp(0));
+        final ChangeResource otherChangeResource = mock(ChangeResource.class);
+
+        final SubmitRecord ready = new SubmitRecord();
+        ready.status = SubmitRecord.Status.OK;
+        when(workQueue.createQueue(anyInt(), anyString())).thenReturn(executor);
+        when(requestContext.open()).thenReturn(context);
+        when(changesCollection.parse(change.getId())).thenReturn(changeResource);
+        when(changeResource.getChange()).thenReturn(change);
+        when(changesCollection.parse(otherChange.getId())).thenReturn(otherChangeResource);
+        when(otherChangeResource.getChange()).thenReturn(otherChange);
+        when(revisions.parse(eq(otherChangeResource), any(IdString.class))).thenReturn(revisionResource);
+        when(revisions.parse(eq(changeResource), any(IdString.class))).thenReturn(revisionResource);
+        when(changeDataFactory.create(any(ReviewDb.class), any(ChangeControl.class))).thenReturn(changeData);
+        when(changeData.submitRecords(any(SubmitRuleOptions.class))).thenReturn(ImmutableList.of(ready));
+        when(changeData.isMergeable()).thenReturn(true);
+
+        submitPusher.start();
+    }
+
+    @Test
+    public void testBatchSubmittedInRequestContext() throws Exception {
+        assertTrue(submitPusher.submitPatch(change, "maintainer-plugin", 30));
+        verify(submitApi, never()).apply(any(RevisionResource.class), any(SubmitInput.class));
+
+        final ArgumentCaptor<Runnable> batch = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(batch.capture(), eq(30L), eq(TimeUnit.SECONDS));
+        batch.getValue().run();
+
+        final InOrder inOrder = inOrder(requestContext, submitApi, context);
+        inOrder.verify(requestContext).open();
+        inOrder.verify(submitApi).apply(eq(revisionResource), any(SubmitInput.class));
+        inOrder.verify(context).close();
+    }
+
+    @Test
+    public void testRetrySubmittedInRequestContext() throws Exception {
+        when(changeData.isMergeable()).thenReturn(false, true);
+        assertFalse(submitPusher.submitPatch(change, "maintainer-plugin"));
+
+        final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(retry.capture(), eq(60L), eq(TimeUnit.SECONDS));
+        retry.getValue().run();
+
+        final InOrder inOrder = inOrder(requestContext, submitApi, context);
+        inOrder.verify(requestContext).open();
+        inOrder.verify(submitApi).apply(eq(revisionResource), any(SubmitInput.class));
+        inOrder.verify(context).close();
+    }
+
+    @Test
+    public void testChangeSubmittedIfBatchRejected() throws Exception {
+        when(executor.schedule(any(Runnable.class), eq(30L), eq(TimeUnit.SECONDS)))
+                .thenThrow(new RejectedExecutionException());
+        assertTrue(submitPusher.submitPatch(change, "maintainer-plugin", 30));
+
+        verify(submitApi).apply(eq(revisionResource), any(SubmitInput.class));
+    }
+
+    @Test
+    public void testJoinedChangesSubmittedIfBatchRejected() throws Exception {
+        when(manager.openRepository(change.getProject())).thenThrow(new RepositoryNotFoundException("vpp"));
+        when(executor.schedule(any(Runnable.class), eq(30L), eq(TimeUnit.SECONDS))).thenAnswer(invocation -> {
+            // other change joins batch before its window is scheduled
+            assertTrue(submitPusher.submitPatch(otherChange, "maintainer-plugin", 30));
+            throw new RejectedExecutionException();
+        });
+        assertTrue(submitPusher.submitPatch(change, "maintainer-plugin", 30));
+
+        verify(submitApi, times(2)).apply(eq(revisionResource), any(SubmitInput.class));
+    }
+}
@@ -0,0 +1,99 @@
+package io.fd.maintainer.plugin.service.push;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.common.data.SubmitRecord;
+import com.google.gerrit.reviewdb.client.Change;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.Test;
+
+public class SubmitPusherTest {
+
+    private static SubmitRecord record(final SubmitRecord.Status status, final SubmitRecord.Label... labels) {
+        final SubmitRecord record = new SubmitRecord();
+        record.status = status;
+        record.labels = ImmutableList.copyOf(labels);
+        return record;
+    }
+
+    private static SubmitRecord.Label label(final String name, final SubmitRecord.Label.Status status) {
+        final SubmitRecord.Label label = new SubmitRecord.Label();
+        label.label = name;
+        label.status = status;
+        return label;
+    }
+
+    private static ObjectId commit(final ObjectInserter inserter, final String message, final ObjectId... parents)
+            throws IOException {
+        final CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(inserter.insert(new TreeFormatter()));
+        commit.setParentIds(parents);
+        commit.setAuthor(new PersonIdent("author", "author@example.com"));
+        commit.setCommitter(new PersonIdent("author", "author@example.com"));
+        commit.setMessage(message);
+        return inserter.insert(commit);
+    }
+
+    @Test
+    public void testReadyChange() {
+        assertFalse(SubmitPusher.notReadyReason(ImmutableList.of(record(SubmitRecord.Status.OK,
+                label("Code-Review", SubmitRecord.Label.Status.OK))), true).isPresent());
+        // mergeability not computed yet is left to submit
+        assertFalse(SubmitPusher.notReadyReason(ImmutableList.of(record(SubmitRecord.Status.OK)), null).isPresent());
+    }
+
+    @Test
+    public void testMissingLabel() {
+        final Optional<String> reason = SubmitPusher.notReadyReason(ImmutableList.of(record(
+                SubmitRecord.Status.NOT_READY,
+                label("Code-Review", SubmitRecord.Label.Status.OK),
+                label("Verified", SubmitRecord.Label.Status.NEED))), true);
+
+        assertTrue(reason.isPresent());
+        assertEquals("submit requirements not met: NOT_READY [NEED Verified]", reason.get());
+    }
+
+    @Test
+    public void testNotMergeable() {
+        assertEquals(Optional.of("change is not mergeable"),
+                SubmitPusher.notReadyReason(ImmutableList.of(record(SubmitRecord.Status.OK)), false));
+    }
+
+    @Test
+    public void testBatchInDependencyOrder() throws IOException {
+        final InMemoryRepository repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+        try (final ObjectInserter inserter = repository.newObjectInserter();
+             final RevWalk revWalk = new RevWalk(repository)) {
+            final ObjectId tip = commit(inserter, "tip");
+            final ObjectId parent = commit(inserter, "parent", tip);
+            final ObjectId child = commit(inserter, "child", parent);
+            final ObjectId unrelated = commit(inserter, "unrelated", tip);
+            inserter.flush();
+
+            // child became ready first
+            final Map<ObjectId, Change.Id> changesByCommit = new LinkedHashMap<>();
+            changesByCommit.put(child, new Change.Id(3));
+            changesByCommit.put(unrelated, new Change.Id(4));
+            changesByCommit.put(parent, new Change.Id(2));
+
+            final List<Change.Id> ordered = SubmitPusher.inDependencyOrder(revWalk, changesByCommit, tip);
+            assertEquals(3, ordered.size());
+            assertTrue(ordered.indexOf(new Change.Id(2)) < ordered.indexOf(new Change.Id(3)));
+        }
+    }
+}
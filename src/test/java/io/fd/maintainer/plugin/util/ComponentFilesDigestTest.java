@@ -0,0 +1,36 @@
+package io.fd.maintainer.plugin.util;
+
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.NL;
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.found;
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.notFound;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+public class ComponentFilesDigestTest {
+
+    @Test
+    public void testSameMappingSameDigest() {
+        assertEquals(ComponentFilesDigest.of(ImmutableSet.of(found("src/vlib/main.c", "VLIB"),
+                found("src/vlib/cli.c", "VLIB"), notFound("README.md"))),
+                ComponentFilesDigest.of(ImmutableSet.of(notFound("README.md"), found("src/vlib/cli.c", "VLIB"),
+                        found("src/vlib/main.c", "VLIB"))));
+    }
+
+    @Test
+    public void testDiffSummary() {
+        final ComponentFilesDigest previous = ComponentFilesDigest.of(ImmutableSet.of(
+                found("src/vlib/main.c", "VLIB"), found("src/vppinfra/vec.c", "Infra"), notFound("README.md")));
+        final ComponentFilesDigest current = ComponentFilesDigest.of(ImmutableSet.of(
+                found("src/vlib/main.c", "VLIB"), found("src/vlib/cli.c", "VLIB"), found("Makefile", "Build"),
+                notFound("README.md")));
+
+        assertNotEquals(previous, current);
+        assertEquals("Components of affected files changed since previous review." + NL + NL
+                + "Newly affected components :" + NL + " Build" + NL + NL
+                + "No longer affected components :" + NL + " Infra" + NL + NL
+                + "Components with changed files or maintainers :" + NL + " VLIB", current.diffSummary(previous));
+    }
+}
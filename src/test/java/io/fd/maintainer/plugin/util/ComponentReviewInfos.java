@@ -0,0 +1,31 @@
+package io.fd.maintainer.plugin.util;
+
+import com.google.common.collect.ImmutableSet;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+
+/**
+ * Builds review infos of affected files for tests of review messages
+ */
+final class ComponentReviewInfos {
+
+    static final String NL = CommonTasks.LINE_SEPARATOR;
+    static final Maintainer DAVE = new Maintainer("Dave Barach", "dave@barachs.net");
+
+    private ComponentReviewInfos() {
+    }
+
+    static ComponentReviewInfo found(final String file, final String component) {
+        return new ComponentReviewInfo.ComponentReviewInfoBuilder()
+                .setAffectedFile(file)
+                .setComponentName(component)
+                .setComponentMaintainers(ImmutableSet.of(DAVE))
+                .createComponentReviewInfo();
+    }
+
+    static ComponentReviewInfo notFound(final String file) {
+        return new ComponentReviewInfo.ComponentReviewInfoBuilder()
+                .setAffectedFile(file)
+                .createComponentReviewInfo();
+    }
+}
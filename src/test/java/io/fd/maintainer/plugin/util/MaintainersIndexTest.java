@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017 Cisco and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.fd.maintainer.plugin.util;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_FOUND;
+import static io.fd.maintainer.plugin.service.ComponentReviewInfo.ComponentReviewInfoState.COMPONENT_NOT_FOUND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.reviewdb.client.Account;
+import io.fd.maintainer.plugin.parser.ComponentInfo;
+import io.fd.maintainer.plugin.parser.ComponentPath;
+import io.fd.maintainer.plugin.parser.Maintainer;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.parboiled.common.Tuple2;
+
+public class MaintainersIndexTest {
+
+    private static final Account.Id DAVE = new Account.Id(1);
+    private static final Account.Id DAMJAN = new Account.Id(2);
+
+    private List<Maintainer> resolved;
+    private MaintainersIndex index;
+
+    private static ComponentInfo component(final String title, final Set<Maintainer> maintainers,
+                                           final Set<ComponentPath> paths) {
+        return new ComponentInfo.ComponentInfoBuilder()
+                .setTitle(title)
+                .setMaintainers(maintainers)
+                .setPaths(paths)
+                .createMaintainer();
+    }
+
+    private static Maintainer m(final String name, final String mail) {
+        return new Maintainer(name, mail);
+    }
+
+    private static ComponentPath p(final String path) {
+        return new ComponentPath(path);
+    }
+
+    private Optional<Account.Id> resolve(final Maintainer maintainer) {
+        resolved.add(maintainer);
+        switch (maintainer.getName()) {
+            case "Dave Barach":
+                return Optional.of(DAVE);
+            case "Damjan Marion":
+                return Optional.of(DAMJAN);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    @Before
+    public void init() {
+        resolved = new ArrayList<>();
+        index = new MaintainersIndex(ImmutableList.of(
+                component("Build System", of(m("Damjan Marion", "damarion@cisco.com")),
+                        of(p("Makefile"), p("src/*.mk"))),
+                component("VLIB Library", of(m("Dave Barach", "dave@barachs.net"),
+                        m("Damjan Marion", "damarion@cisco.com")), of(p("src/vlib/"))),
+                component("Infrastructure Library", of(m("Dave Barach", "dave@barachs.net")),
+                        of(p("src/vppinfra/"))),
+                component("Doxygen", of(m("Chris Luke", "chrisy@flirble.org")), of(p("doxygen/")))),
+                this::resolve);
+    }
+
+    @Test
+    public void testAccountsResolvedOncePerMaintainer() {
+        assertEquals(3, resolved.size());
+    }
+
+    @Test
+    public void testComponentsForAccounts() {
+        assertEquals(of("VLIB Library", "Infrastructure Library"), index.getComponentsForAccounts(of(DAVE)));
+        assertEquals(of("Build System", "VLIB Library", "Infrastructure Library"),
+                index.getComponentsForAccounts(of(DAVE, DAMJAN)));
+        assertTrue(index.getComponentsForAccounts(of(new Account.Id(3))).isEmpty());
+    }
+
+    @Test
+    public void testAccountsForComponent() {
+        assertEquals(of(DAVE, DAMJAN), index.getAccountsForComponent("VLIB Library"));
+        assertEquals(of(DAMJAN), index.getAccountsForComponent("Build System"));
+        // maintainer without account
+        assertTrue(index.getAccountsForComponent("Doxygen").isEmpty());
+    }
+
+    @Test
+    public void testRenameResolvesBothNames() {
+        final Tuple2<Set<ComponentPath>, Set<ComponentPath>> components =
+                index.getComponentPathsForRename("src/vlib/main.c", "src/vppinfra/main.c");
+        assertEquals(of(p("src/vlib/")), components.a);
+        assertEquals(of(p("src/vppinfra/")), components.b);
+    }
+
+    @Test
+    public void testRenameSpecificityResolvedPerName() {
+        // old name matches shorter path than new name
+        final Tuple2<Set<ComponentPath>, Set<ComponentPath>> components =
+                index.getComponentPathsForRename("Makefile", "src/vlib/Makefile");
+        assertEquals(of(p("Makefile")), components.a);
+        assertEquals(of(p("src/vlib/")), components.b);
+    }
+
+    @Test
+    public void testRenameOfAddedFile() {
+        final Tuple2<Set<ComponentPath>, Set<ComponentPath>> components =
+                index.getComponentPathsForRename(null, "doxygen/Doxyfile");
+        assertTrue(components.a.isEmpty());
+        assertEquals(of(p("doxygen/")), components.b);
+    }
+
+    @Test
+    public void testReviewInfoForPath() {
+        final ComponentReviewInfo reviewInfo = index.getReviewInfoForPath("src/vlib/main.c");
+        assertEquals(COMPONENT_FOUND, reviewInfo.getState());
+        assertEquals("VLIB Library", reviewInfo.getComponentName());
+
+        assertEquals(COMPONENT_NOT_FOUND, index.getReviewInfoForPath("README.md").getState());
+    }
+
+    @Test
+    public void testExcludedPaths() {
+        final MaintainersIndex excludingIndex = new MaintainersIndex(ImmutableList.of(
+                new ComponentInfo.ComponentInfoBuilder()
+                        .setTitle("VLIB Library")
+                        .setMaintainers(of(m("Dave Barach", "dave@barachs.net")))
+                        .setPaths(of(p("src/vlib/")))
+                        .setExcludedPaths(of(p("src/vlib/**/test_*.c")))
+                        .createMaintainer(),
+                component("Sources", of(m("Damjan Marion", "damarion@cisco.com")), of(p("src/*")))),
+                this::resolve);
+
+        assertEquals("VLIB Library", excludingIndex.getReviewInfoForPath("src/vlib/main.c").getComponentName());
+        // excluded from more specific component, so falls back to less specific one
+        assertEquals("Sources", excludingIndex.getReviewInfoForPath("src/vlib/unix/test_main.c").getComponentName());
+    }
+
+    @Test
+    public void testAccountsReusedFromPreviousVersion() {
+        resolved.clear();
+        final MaintainersIndex next = new MaintainersIndex(ImmutableList.of(
+                component("VLIB Library", of(m("Dave Barach", "dave@barachs.net"),
+                        m("Damjan Marion", "damarion@cisco.com")), of(p("src/vlib/"))),
+                component("Doxygen", of(m("Chris Luke", "chrisy@flirble.org")), of(p("doxygen/")))),
+                this::resolve, index);
+
+        // only maintainer without account is resolved again
+        assertEquals(ImmutableList.of(m("Chris Luke", "chrisy@flirble.org")), resolved);
+        assertEquals(of(DAVE, DAMJAN), next.getAccountsForComponent("VLIB Library"));
+    }
+
+    @Test
+    public void testExpiredAccountsResolvedAgain() {
+        final List<ComponentInfo> components = ImmutableList.of(
+                component("VLIB Library", of(m("Dave Barach", "dave@barachs.net")), of(p("src/vlib/"))));
+        final MaintainersIndex first = new MaintainersIndex(components, this::resolve, null, 0);
+        final MaintainersIndex second = new MaintainersIndex(components, this::resolve, first,
+                MaintainersIndex.ACCOUNT_RESOLUTION_TTL_MILLIS / 2);
+        resolved.clear();
+
+        // resolution is as old as the first version, not as the one it was taken over by
+        new MaintainersIndex(components, this::resolve, second, MaintainersIndex.ACCOUNT_RESOLUTION_TTL_MILLIS - 1);
+        assertTrue(resolved.isEmpty());
+        new MaintainersIndex(components, this::resolve, second, MaintainersIndex.ACCOUNT_RESOLUTION_TTL_MILLIS);
+        assertEquals(ImmutableList.of(m("Dave Barach", "dave@barachs.net")), resolved);
+    }
+}
@@ -0,0 +1,49 @@
+package io.fd.maintainer.plugin.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.reviewdb.client.Account;
+import com.google.gerrit.reviewdb.client.Change;
+import com.google.gerrit.reviewdb.client.LabelId;
+import com.google.gerrit.reviewdb.client.PatchSet;
+import com.google.gerrit.reviewdb.client.PatchSetApproval;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+
+public class PatchListProcessingTest implements PatchListProcessing {
+
+    private static final Account.Id PLUGIN_USER = new Account.Id(1);
+    private static final Account.Id MAINTAINER = new Account.Id(2);
+    private static final PatchSet.Id FIRST = new PatchSet.Id(new Change.Id(1), 1);
+    private static final PatchSet.Id SECOND = new PatchSet.Id(new Change.Id(1), 2);
+
+    private static PatchSetApproval approval(final PatchSet.Id patchSet, final Account.Id account, final String label,
+                                             final int value) {
+        return new PatchSetApproval(new PatchSetApproval.Key(patchSet, account, new LabelId(label)), (short) value,
+                new Date());
+    }
+
+    @Test
+    public void testApprovedByOnlyOnCurrentPatchset() {
+        final List<PatchSetApproval> approvals = ImmutableList.of(
+                approval(FIRST, PLUGIN_USER, CODE_REVIEW_LABEL, 2),
+                approval(SECOND, MAINTAINER, CODE_REVIEW_LABEL, 1));
+
+        assertTrue(isApprovedBy(approvals, FIRST, PLUGIN_USER));
+        // approval of previous patchset does not count
+        assertFalse(isApprovedBy(approvals, SECOND, PLUGIN_USER));
+    }
+
+    @Test
+    public void testApprovedByRequiresCodeReviewPlusTwo() {
+        final List<PatchSetApproval> approvals = ImmutableList.of(
+                approval(SECOND, PLUGIN_USER, "Verified", 2),
+                approval(SECOND, MAINTAINER, CODE_REVIEW_LABEL, 2));
+
+        assertFalse(isApprovedBy(approvals, SECOND, PLUGIN_USER));
+        assertTrue(isApprovedBy(approvals, SECOND, MAINTAINER));
+    }
+}
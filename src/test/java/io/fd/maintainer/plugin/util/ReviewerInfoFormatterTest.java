@@ -0,0 +1,53 @@
+package io.fd.maintainer.plugin.util;
+
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.NL;
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.found;
+import static io.fd.maintainer.plugin.util.ComponentReviewInfos.notFound;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import io.fd.maintainer.plugin.service.ComponentReviewInfo;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class ReviewerInfoFormatterTest {
+
+    @Test
+    public void testFormat() {
+        assertEquals("Component VLIB Library" + NL + NL
+                        + "Maintainers :" + NL + " Dave Barach<dave@barachs.net>" + NL + NL
+                        + "Affected files :" + NL + " Path: src/vlib/main.c" + NL
+                        + NL + "No component found for following files" + NL + " README.md",
+                new ReviewerInfoFormatter().format(ImmutableSet.of(found("src/vlib/main.c", "VLIB Library"),
+                        notFound("README.md"))));
+    }
+
+    @Test
+    public void testFilesPerComponentCapped() {
+        final Set<ComponentReviewInfo> reviewInfoSet = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            reviewInfoSet.add(found("src/vlib/file" + i + ".c", "VLIB Library"));
+        }
+        final String message = new ReviewerInfoFormatter(3, 1024).format(reviewInfoSet);
+
+        assertEquals(3, message.split(" Path: ", -1).length - 1);
+        // alphabetically first files are listed, whatever the order of set is
+        assertTrue(message.contains("Affected files :" + NL + " Path: src/vlib/file0.c" + NL + " Path: src/vlib/file1.c"
+                + NL + " Path: src/vlib/file2.c" + NL + " and 7 more files"));
+        assertTrue(message.endsWith(" and 7 more files" + NL));
+    }
+
+    @Test
+    public void testLengthLimited() {
+        final Set<ComponentReviewInfo> reviewInfoSet = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            reviewInfoSet.add(found("src/component" + i + "/main.c", "Component " + i));
+        }
+        final String message = new ReviewerInfoFormatter(10, 2000).format(reviewInfoSet);
+
+        assertTrue(message.length() <= 2000);
+        assertTrue(message.endsWith("Message truncated, remaining components and files are not listed."));
+    }
+}
@@ -0,0 +1,84 @@
+package io.fd.maintainer.plugin.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Builds content of in-memory repositories for tests
+ */
+public final class TestRepositories {
+
+    private static final PersonIdent AUTHOR = new PersonIdent("Dave Barach", "dave@barachs.net");
+
+    private TestRepositories() {
+    }
+
+    public static InMemoryRepository create() {
+        return new InMemoryRepository(new DfsRepositoryDescription("test"));
+    }
+
+    /**
+     * Creates commit with given content of files, files not listed are not part of its tree
+     */
+    public static RevCommit commit(final Repository repository, @Nullable final RevCommit parent,
+                                   final Map<String, String> files) throws IOException {
+        try (final ObjectInserter inserter = repository.newObjectInserter();
+             final RevWalk revWalk = new RevWalk(repository)) {
+            final DirCache tree = DirCache.newInCore();
+            final DirCacheBuilder treeBuilder = tree.builder();
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                final DirCacheEntry entry = new DirCacheEntry(file.getKey());
+                entry.setFileMode(FileMode.REGULAR_FILE);
+                entry.setObjectId(blob(inserter, file.getValue()));
+                treeBuilder.add(entry);
+            }
+            treeBuilder.finish();
+
+            final CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(tree.writeTree(inserter));
+            if (parent != null) {
+                commit.setParentId(parent);
+            }
+            commit.setAuthor(AUTHOR);
+            commit.setCommitter(AUTHOR);
+            commit.setMessage("test commit");
+            final ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+            return revWalk.parseCommit(commitId);
+        }
+    }
+
+    public static ObjectId blobId(final String content) {
+        try (final ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+            return formatter.idFor(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static void setRef(final Repository repository, final String refName, final ObjectId commitId)
+            throws IOException {
+        final RefUpdate refUpdate = repository.updateRef(refName);
+        refUpdate.setNewObjectId(commitId);
+        refUpdate.forceUpdate();
+    }
+
+    private static ObjectId blob(final ObjectInserter inserter, final String content) throws IOException {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+}